@@ -0,0 +1,124 @@
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Workloads measured by the benchmarks in the {@code benchmarks} package.
+ * JMH does not allow benchmarks in the default package and classes in a named package
+ * cannot refer to the default package, so the benchmarks look up these factories
+ * reflectively once, during setup, and only call the returned JDK functional interfaces.
+ */
+public final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @param markup of the product.
+     * @param promotion of the product, or null for no promotion.
+     * @return {@link Product#checkTotalPriceCents(long)} of a new product.
+     */
+    public static IntToLongFunction checkTotalPrice(String markup, String promotion) {
+        Product product = new Product('A', 0.52, markup, promotion);
+        return product::checkTotalPriceCents;
+    }
+
+    /**
+     * @param promotion of the product, or null for no promotion.
+     * @return {@link Product#checkTotalPriceCents(long)} of a new product without price cache.
+     */
+    public static LongUnaryOperator checkHugeTotalPrice(String promotion) {
+        Product product = new Product('A', 0.01, "0%", promotion);
+        return product::checkTotalPriceCents;
+    }
+
+    /**
+     * @param markup of the product.
+     * @param promotion of the product, or null for no promotion.
+     * @return a supplier that constructs a new product on every call.
+     */
+    public static Supplier<Object> newProduct(String markup, String promotion) {
+        return () -> new Product('A', 0.52, markup, promotion);
+    }
+
+    /**
+     * @param size number of products in the catalog, at most 65536.
+     * @return {@link ProductCollection#get(int)} of a catalog of the given size.
+     */
+    public static IntFunction<Object> productLookup(int size) {
+        ProductCollection productCollection = new ProductCollection();
+        for (int i = 0; i < size; i++) {
+            productCollection.add(new Product((char) i, 0.52, "80%"));
+        }
+        return productCollection::get;
+    }
+
+    /**
+     * @param size number of products in the catalog, with the SKUs "SKU-0" up to "SKU-(size-1)".
+     * @param index "skuDictionary" for {@link ProductCollection#get(String)}, "hashMap" for
+     * a {@code HashMap} from SKU to product.
+     * @return the lookup of a product by SKU in a catalog of the given size.
+     */
+    public static Function<String, Object> skuLookup(int size, String index) {
+        ProductCollection productCollection = createSkuCatalog(size);
+        switch (index) {
+            case "skuDictionary":
+                return productCollection::get;
+            case "hashMap":
+                Map<String, Product> products = new HashMap<>();
+                for (Product product : productCollection.getProducts()) {
+                    products.put(product.getSku(), product);
+                }
+                return products::get;
+            default:
+                throw new IllegalArgumentException("Unknown index: " + index);
+        }
+    }
+
+    /**
+     * @param size number of products in the catalog, with the SKUs "SKU-0" up to "SKU-(size-1)".
+     * @return {@link ProductCollection#getByOrdinal(int)} of a catalog of the given size.
+     */
+    public static IntFunction<Object> ordinalLookup(int size) {
+        return createSkuCatalog(size)::getByOrdinal;
+    }
+
+    private static ProductCollection createSkuCatalog(int size) {
+        ProductCollection productCollection = new ProductCollection();
+        Markup markup = Markup.parse("80%");
+        for (int i = 0; i < size; i++) {
+            productCollection.add(new Product("SKU-" + i, 0.52, markup, null));
+        }
+        return productCollection;
+    }
+
+    /**
+     * @param output whether the order details are rendered as text (to a writer that discards them).
+     * @return a function that adds the given amounts of the four sample products to an order
+     * with {@link Client#addToOrder(Product, int)} and returns {@link Client#finishOrder()}.
+     */
+    public static ToDoubleFunction<int[]> orderCycle(boolean output) {
+        Product[] products = {
+                new Product('A', 0.52, "80%"),
+                new Product('B', 0.38, "120%", "30% off"),
+                new Product('C', 0.41, "0.9 EUR/unit"),
+                new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free")
+        };
+        ReceiptRenderer renderer = output ? ReceiptRenderer.writer(Writer.nullWriter()) : ReceiptRenderer.NONE;
+        return amounts -> {
+            Client client = new Client(1, 500, 0, 200);
+            client.setRenderer(renderer);
+            for (int i = 0; i < amounts.length; i++) {
+                if (amounts[i] != 0) {
+                    client.addToOrder(products[i], amounts[i]);
+                }
+            }
+            return client.finishOrder();
+        };
+    }
+}
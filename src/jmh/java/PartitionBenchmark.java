@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Throughput of pricing orders in partitioned mode for a growing number of partitions. The
+ * catalog has the sample products of {@link Main} and many clients; every run starts a worker
+ * process per partition and prices the same orders with {@link PartitionCoordinator#priceAll}.
+ * The first line is the same work in a single JVM with {@link OrderPricer}, without sockets:
+ * every order is priced on its own and added to the expenditure of its client.
+ * <pre>
+ * java -cp target/benchmarks.jar PartitionBenchmark [maxPartitions] [clients] [orders] [rounds]
+ * </pre>
+ */
+public class PartitionBenchmark {
+    public static void main(String[] args) throws IOException {
+        int maxPartitions = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int clientCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int orderCount = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        Path products = Files.createTempFile("products", ".csv");
+        Path clients = Files.createTempFile("clients", ".csv");
+        try {
+            Files.writeString(products, "A,0.52,80%\nB,0.38,120%,30% off\nC,0.41,0.9 EUR/unit\nD,0.60,1 EUR/unit,Buy 2, get 3rd free\n");
+            try (Writer out = Files.newBufferedWriter(clients)) {
+                for (int id = 1; id <= clientCount; id++) {
+                    out.write(id + "," + id % 6 + "%," + id % 4 + "%," + id % 8 + "%\n");
+                }
+            }
+            OrderRequest[] orders = createOrders(orderCount, clientCount);
+            System.out.println(clientCount + " clients, " + orderCount + " orders, "
+                    + Runtime.getRuntime().availableProcessors() + " processors");
+
+            measureSingleJvm(products, clients, orders, rounds);
+            for (int partitions = 1; partitions <= maxPartitions; partitions *= 2) {
+                measure(partitions, products, clients, orders, rounds);
+            }
+        } finally {
+            Files.deleteIfExists(products);
+            Files.deleteIfExists(clients);
+        }
+    }
+
+    private static OrderRequest[] createOrders(int count, int clientCount) {
+        Random random = new Random(42);
+        OrderRequest[] orders = new OrderRequest[count];
+        for (int i = 0; i < count; i++) {
+            orders[i] = new OrderRequest(1 + random.nextInt(clientCount),
+                    random.nextInt(100), random.nextInt(100), random.nextInt(100), random.nextInt(100));
+        }
+        return orders;
+    }
+
+    private static void measureSingleJvm(Path productFile, Path clientFile, OrderRequest[] orders, int rounds) throws IOException {
+        ProductCollection products = new ProductCollection();
+        ClientCollection clients = new ClientCollection();
+        CatalogLoader.loadProducts(productFile, products);
+        CatalogLoader.loadClients(clientFile, clients);
+        OrderPricer pricer = new OrderPricer(products, clients);
+        double[] throughput = new double[rounds];
+        for (int round = -1; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (OrderRequest order : orders) {
+                clients.get(order.getClientId()).addToExpenditure(pricer.price(order).getTotalCents());
+            }
+            if (round >= 0) {
+                throughput[round] = orders.length * 1e9 / (System.nanoTime() - start);
+            }
+        }
+        report("single JVM", throughput);
+    }
+
+    private static void measure(int partitions, Path products, Path clients, OrderRequest[] orders, int rounds) throws IOException {
+        try (PartitionCoordinator coordinator = PartitionCoordinator.launch(partitions, products.toString(), clients.toString())) {
+            double[] throughput = new double[rounds];
+            // One round to warm up the workers.
+            for (int round = -1; round < rounds; round++) {
+                long start = System.nanoTime();
+                coordinator.priceAll(orders);
+                if (round >= 0) {
+                    throughput[round] = orders.length * 1e9 / (System.nanoTime() - start);
+                }
+            }
+            report(partitions + (partitions == 1 ? " partition" : " partitions"), throughput);
+        }
+    }
+
+    private static void report(String name, double[] throughput) {
+        double[] sorted = throughput.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%s: median %.0f orders/s (min %.0f, max %.0f)%n",
+                name, sorted[sorted.length / 2], sorted[0], sorted[sorted.length - 1]);
+    }
+}
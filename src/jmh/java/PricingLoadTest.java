@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test of {@link PricingServer}: several workers send pricing requests back to back
+ * for a fixed time, after which the throughput and the latency percentiles are reported.
+ * Without a URL a server with the products and clients of {@link Main} is started locally.
+ * <pre>
+ * java -cp target/benchmarks.jar PricingLoadTest [workers] [seconds] [url]
+ * </pre>
+ */
+public class PricingLoadTest {
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        PricingServer server = null;
+        String url;
+        if (args.length > 2) {
+            url = args[2];
+        } else {
+            server = new PricingServer(new VersionedCatalog(Main.createProducts()), Main.createClients(), 0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long[][] latencies = new long[workers][];
+        int[] counts = new int[workers];
+        int[] errors = new int[workers];
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] threads = new Thread[workers];
+        for (int w = 0; w < workers; w++) {
+            int worker = w;
+            threads[w] = new Thread(() -> {
+                long[] samples = new long[1 << 16];
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    URI uri = URI.create(url + "/price?client=" + (1 + random.nextInt(5)) + "&amounts="
+                            + random.nextInt(1000) + "," + random.nextInt(1000) + "," + random.nextInt(1000) + "," + random.nextInt(1000));
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors[worker]++;
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        errors[worker]++;
+                    }
+                    if (counts[worker] == samples.length) {
+                        samples = Arrays.copyOf(samples, samples.length * 2);
+                    }
+                    samples[counts[worker]++] = System.nanoTime() - start;
+                }
+                latencies[worker] = samples;
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (server != null) {
+            server.stop();
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int w = 0; w < workers; w++) {
+            System.arraycopy(latencies[w], 0, all, offset, counts[w]);
+            offset += counts[w];
+        }
+        Arrays.sort(all);
+        System.out.printf("requests: %d, errors: %d, throughput: %.0f requests/s%n",
+                total, Arrays.stream(errors).sum(), total / (double) seconds);
+        System.out.printf("latency p50: %.1f us, p99: %.1f us, max: %.1f us%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, total == 0 ? 0 : all[total - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory benchmark of the SKU index: the retained heap of a {@link SkuDictionary} and of a
+ * {@code HashMap<String, Integer>} plus a list of the SKUs by ordinal, both holding the same
+ * wide SKUs. The heap is measured after a full collection, before and after building each index,
+ * and includes the SKU strings; the estimates exclude them.
+ * <pre>
+ * java -cp target/benchmarks.jar SkuMemoryBenchmark [skus]
+ * </pre>
+ */
+public class SkuMemoryBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        SkuDictionary dictionary = new SkuDictionary();
+        for (int i = 0; i < size; i++) {
+            dictionary.intern(sku(i));
+        }
+        long dictionaryBytes = usedHeap() - before;
+        check(dictionary.size() == size);
+        report("SkuDictionary", size, dictionaryBytes, dictionary.estimateBytes());
+        dictionary = null;
+
+        before = usedHeap();
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<String> skus = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String sku = sku(i);
+            ordinals.put(sku, skus.size());
+            skus.add(sku);
+        }
+        long hashMapBytes = usedHeap() - before;
+        check(ordinals.size() == size && skus.size() == size);
+        report("HashMap<String, Integer>", size, hashMapBytes, SkuDictionary.estimateHashMapBytes(size));
+    }
+
+    private static String sku(int i) {
+        return "SKU-" + i;
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Index is incomplete");
+        }
+    }
+
+    private static void report(String name, int size, long measured, long estimated) {
+        System.out.printf("%s: %d SKUs, measured %.1f MB (%.1f B/SKU) with strings, estimated %.1f MB (%.1f B/SKU) without%n",
+                name, size, measured / 1e6, (double) measured / size, estimated / 1e6, (double) estimated / size);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
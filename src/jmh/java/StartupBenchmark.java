@@ -0,0 +1,94 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Startup benchmark of {@link Main} as it is run from scripts, once per order. Every run starts
+ * a new JVM and measures the time until the first receipt line is printed and until the JVM
+ * exits, without and with the fast-start files of {@code mvn -P fast-start package}.
+ * <pre>
+ * java -cp target/benchmarks.jar StartupBenchmark [runs] [jar] [archive] [image]
+ * </pre>
+ */
+public class StartupBenchmark {
+    private static final String[] ORDER = {"1", "10", "20", "30", "40"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String jar = args.length > 1 ? args[1] : "target/Assignment0-1.0-SNAPSHOT.jar";
+        String archive = args.length > 2 ? args[2] : "target/pricing.jsa";
+        String image = args.length > 3 ? args[3] : "target/catalog.img";
+        for (String file : new String[]{jar, archive, image}) {
+            if (!Files.exists(Path.of(file))) {
+                throw new IllegalArgumentException(file + " does not exist, build with: mvn -P fast-start package");
+            }
+        }
+
+        measure("baseline", runs, jar);
+        measure("catalog image", runs, jar, "-Dpricing.image=" + image);
+        measure("catalog image + AppCDS", runs, jar, "-Dpricing.image=" + image, "-XX:SharedArchiveFile=" + archive);
+        measure("catalog image + AppCDS + C1 only", runs, jar, "-Dpricing.image=" + image, "-XX:SharedArchiveFile=" + archive,
+                "-XX:TieredStopAtLevel=1");
+    }
+
+    private static void measure(String name, int runs, String jar, String... options) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options));
+        command.add("-cp");
+        command.add(jar);
+        command.add("Main");
+        command.addAll(Arrays.asList(ORDER));
+
+        // One run to warm up the file system cache.
+        run(command);
+        long[] firstReceipt = new long[runs];
+        long[] exit = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] times = run(command);
+            firstReceipt[i] = times[0];
+            exit[i] = times[1];
+        }
+        System.out.println(name + ": first receipt line median " + millis(median(firstReceipt))
+                + " ms, exit median " + millis(median(exit)) + " ms");
+    }
+
+    /**
+     * Run the command once.
+     * @param command starting the JVM.
+     * @return the nanoseconds until the first receipt line and until the JVM exited.
+     */
+    private static long[] run(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long firstReceipt = -1;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (firstReceipt < 0 && line.startsWith("Product:")) {
+                    firstReceipt = System.nanoTime() - start;
+                }
+            }
+        }
+        if (process.waitFor() != 0 || firstReceipt < 0) {
+            throw new IllegalStateException("Run failed: " + String.join(" ", command));
+        }
+        return new long[]{firstReceipt, System.nanoTime() - start};
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 100_000.0) / 10.0);
+    }
+}
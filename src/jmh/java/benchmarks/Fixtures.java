@@ -0,0 +1,32 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Looks up the workloads of {@code BenchmarkFixtures}, which lives in the default package
+ * together with the code under test.
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Call a static factory of {@code BenchmarkFixtures}.
+     * @param name of the factory method.
+     * @param parameterTypes of the factory method.
+     * @param args passed to the factory method.
+     * @return the workload created by the factory.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T create(String name, Class<?>[] parameterTypes, Object... args) {
+        try {
+            Method method = Class.forName("BenchmarkFixtures").getMethod(name, parameterTypes);
+            return (T) method.invoke(null, args);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot create workload " + name, e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create workload " + name, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A full order of a client: {@code Client.addToOrder} for every product followed by
+ * {@code Client.finishOrder}, with the details rendered as text or not rendered at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderCycleBenchmark {
+
+    @Param({"false", "true"})
+    public boolean output;
+
+    private ToDoubleFunction<int[]> orderCycle;
+    private final int[] amounts = {10000, 20000, 30, 45};
+
+    @Setup
+    public void setup() {
+        orderCycle = Fixtures.create("orderCycle", new Class<?>[]{boolean.class}, output);
+    }
+
+    @Benchmark
+    public double addToOrderAndFinish() {
+        return orderCycle.applyAsDouble(amounts);
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Positional lookup with {@code ProductCollection.get(int)} for growing catalogs.
+ * Product ids are a single char, so the largest catalog has 65536 products.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductLookupBenchmark {
+
+    @Param({"4", "100", "10000", "65536"})
+    public int catalogSize;
+
+    private IntFunction<Object> lookup;
+    private int index;
+
+    @Setup
+    public void setup() {
+        lookup = Fixtures.create("productLookup", new Class<?>[]{int.class}, catalogSize);
+    }
+
+    @Benchmark
+    public Object getByPosition() {
+        index = index + 1 == catalogSize ? 0 : index + 1;
+        return lookup.apply(index);
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Pricing and construction of a single product, for every kind of markup and promotion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPricingBenchmark {
+
+    @Param({"80%", "0.9 EUR/unit"})
+    public String markup;
+
+    @Param({"none", "30% off", "Buy 2, get 3rd free"})
+    public String promotion;
+
+    @Param({"1000"})
+    public int amount;
+
+    private IntToLongFunction checkTotalPrice;
+    private Supplier<Object> newProduct;
+
+    @Setup
+    public void setup() {
+        String productPromotion = promotion.equals("none") ? null : promotion;
+        Class<?>[] types = {String.class, String.class};
+        checkTotalPrice = Fixtures.create("checkTotalPrice", types, markup, productPromotion);
+        newProduct = Fixtures.create("newProduct", types, markup, productPromotion);
+    }
+
+    @Benchmark
+    public long checkTotalPrice() {
+        return checkTotalPrice.applyAsLong(amount);
+    }
+
+    @Benchmark
+    public Object construct() {
+        return newProduct.get();
+    }
+}
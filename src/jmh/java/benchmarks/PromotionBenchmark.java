@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Pricing of wholesale amounts up to trillions of units. Promotions are evaluated in closed
+ * form, so run with {@code -prof gc}: gc.alloc.rate.norm should be 0 bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionBenchmark {
+
+    @Param({"none", "30% off", "Buy 2, get 3rd free"})
+    public String promotion;
+
+    @Param({"1000", "3000000000000"})
+    public long amount;
+
+    private LongUnaryOperator checkTotalPrice;
+
+    @Setup
+    public void setup() {
+        String productPromotion = promotion.equals("none") ? null : promotion;
+        checkTotalPrice = Fixtures.create("checkHugeTotalPrice", new Class<?>[]{String.class}, productPromotion);
+    }
+
+    @Benchmark
+    public long checkTotalPrice() {
+        return checkTotalPrice.applyAsLong(amount);
+    }
+}
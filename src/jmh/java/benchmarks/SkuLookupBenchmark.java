@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Lookup of products by wide SKU, through the SKU dictionary of {@code ProductCollection}
+ * and through a {@code HashMap} from SKU to product, and lookup by SKU ordinal. The SKUs
+ * that are looked up are equal to, but not the same strings as, the SKUs of the catalog,
+ * as they would be when parsed from an order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkuLookupBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int catalogSize;
+
+    @Param({"skuDictionary", "hashMap"})
+    public String index;
+
+    private Function<String, Object> lookup;
+    private IntFunction<Object> ordinalLookup;
+    private String[] skus;
+    private int position;
+
+    @Setup
+    public void setup() {
+        lookup = Fixtures.create("skuLookup", new Class<?>[]{int.class, String.class}, catalogSize, index);
+        ordinalLookup = Fixtures.create("ordinalLookup", new Class<?>[]{int.class}, catalogSize);
+        // Visit the SKUs in a scattered order, so the large catalog does not fit in the caches.
+        skus = new String[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            skus[i] = "SKU-" + (int) ((i * 0x9E3779B1L) % catalogSize);
+        }
+    }
+
+    @Benchmark
+    public Object getBySku() {
+        position = position + 1 == catalogSize ? 0 : position + 1;
+        return lookup.apply(skus[position]);
+    }
+
+    @Benchmark
+    public Object getByOrdinal() {
+        position = position + 1 == catalogSize ? 0 : position + 1;
+        return ordinalLookup.apply((int) ((position * 0x9E3779B1L) % catalogSize));
+    }
+}
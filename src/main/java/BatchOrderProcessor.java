@@ -0,0 +1,212 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prices many orders with one loaded catalog, as {@link Main} does in batch mode. Every line is
+ * an order in the same shape as the arguments of {@code Main}: a client id followed by the
+ * amount of each product. Empty lines and lines starting with '#' are skipped.
+ * <p>
+ * Chunks of lines are priced across a pool of workers, each order as if it was the first
+ * order of the client, and their receipts are written in the order of the input.
+ */
+public class BatchOrderProcessor {
+    /**
+     * Number of lines that a worker prices at once.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    private static final String SEPARATOR = "--------------------------------";
+
+    private final OrderPricer pricer;
+    private final int workers;
+    private final SalesRollup rollup;
+    private final OrderJournal journal;
+
+    /**
+     * Receipts of a chunk of lines.
+     */
+    private static final class Chunk {
+        private final String receipts;
+        private final long orders;
+        private final long totalCents;
+
+        Chunk(String receipts, long orders, long totalCents) {
+            this.receipts = receipts;
+            this.orders = orders;
+            this.totalCents = totalCents;
+        }
+    }
+
+    /**
+     * Create a new batch processor.
+     * @param pricer used to price the orders.
+     * @param workers number of threads that price orders, at least 1.
+     */
+    public BatchOrderProcessor(OrderPricer pricer, int workers) {
+        this(pricer, workers, null);
+    }
+
+    /**
+     * Create a new batch processor that rolls up the sales of the orders while they are priced.
+     * @param pricer used to price the orders.
+     * @param workers number of threads that price orders, at least 1.
+     * @param rollup to which every priced order is added by the worker that priced it, or null.
+     */
+    public BatchOrderProcessor(OrderPricer pricer, int workers, SalesRollup rollup) {
+        this(pricer, workers, rollup, null);
+    }
+
+    /**
+     * Create a new batch processor that rolls up and journals the orders while they are priced.
+     * @param pricer used to price the orders.
+     * @param workers number of threads that price orders, at least 1.
+     * @param rollup to which every priced order is added by the worker that priced it, or null.
+     * @param journal to which the orders of every chunk are appended before its receipts are written, or null.
+     *                Journaled orders are added to the expenditure of their clients once they are durable.
+     */
+    public BatchOrderProcessor(OrderPricer pricer, int workers, SalesRollup rollup, OrderJournal journal) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker");
+        }
+        this.pricer = pricer;
+        this.workers = workers;
+        this.rollup = rollup;
+        this.journal = journal;
+    }
+
+    /**
+     * Price all orders that can be read and write their receipts.
+     * @param in from which the orders are read, one per line.
+     * @param source name of the input, used in error messages.
+     * @param out to which the receipts are written in the order of the input. It is flushed but not closed.
+     * @return the number of orders, their total and the throughput.
+     * @throws IOException if the input cannot be read or the output cannot be written.
+     */
+    public OrderFileProcessor.Result process(BufferedReader in, String source, Writer out) throws IOException {
+        long start = System.nanoTime();
+        long orders = 0;
+        long totalCents = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        try {
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            long lineNumber = 0;
+            String line;
+            while (true) {
+                line = in.readLine();
+                if (line != null) {
+                    lineNumber++;
+                    lines.add(line);
+                }
+                if (lines.size() == CHUNK_SIZE || (line == null && !lines.isEmpty())) {
+                    List<String> chunk = lines;
+                    long firstLine = lineNumber - chunk.size() + 1;
+                    pending.add(pool.submit(() -> price(chunk, source, firstLine)));
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                }
+                // Keep a few chunks per worker in flight, so memory use does not depend on the input.
+                while (!pending.isEmpty() && (pending.size() >= 4 * workers || line == null)) {
+                    Chunk chunk = await(pending.poll());
+                    out.write(chunk.receipts);
+                    orders += chunk.orders;
+                    totalCents += chunk.totalCents;
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        out.flush();
+        return new OrderFileProcessor.Result(orders, totalCents, System.nanoTime() - start);
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while pricing orders");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Price the orders of a chunk of lines.
+     * @param lines of the chunk.
+     * @param source name of the input, used in error messages.
+     * @param firstLine number of the first line of the chunk.
+     * @return the receipts of the chunk.
+     * @throws IOException if the orders cannot be journaled.
+     */
+    private Chunk price(List<String> lines, String source, long firstLine) throws IOException {
+        StringWriter receipts = new StringWriter(lines.size() * 512);
+        PrintWriter out = new PrintWriter(receipts);
+        TextReceiptRenderer renderer = new TextReceiptRenderer(out);
+        int[] amounts = new int[pricer.getProductCount()];
+        long orders = 0;
+        long totalCents = 0;
+        List<Receipt> priced = journal == null ? null : new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            Receipt receipt;
+            try {
+                String[] fields = line.split("\\s+");
+                if (fields.length - 1 > amounts.length) {
+                    throw new IllegalArgumentException("Order has more lines than there are products");
+                }
+                int clientId = Integer.parseInt(fields[0]);
+                for (int j = 1; j < fields.length; j++) {
+                    amounts[j - 1] = Integer.parseInt(fields[j]);
+                }
+                receipt = pricer.quote(clientId, amounts, fields.length - 1);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + (firstLine + i) + ": " + e.getMessage(), e);
+            }
+            out.println(SEPARATOR);
+            out.println("SUMMARY ORDER CLIENT " + receipt.getClientId());
+            out.println(SEPARATOR + "\n");
+            renderer.render(receipt);
+            out.println(SEPARATOR);
+            if (rollup != null) {
+                rollup.record(receipt);
+            }
+            if (priced != null) {
+                priced.add(receipt);
+            }
+            orders++;
+            totalCents += receipt.getTotalCents();
+        }
+        renderer.flush();
+        if (priced != null) {
+            journal.appendAll(priced);
+            // Only durable orders count, so the expenditure is the same after a restart.
+            for (Receipt receipt : priced) {
+                pricer.addToExpenditure(receipt);
+            }
+        }
+        return new Chunk(receipts.toString(), orders, totalCents);
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Promotion in the format "Buy x, get x+1 free", e.g. "Buy 2, get 3rd free".
+ */
+public final class BuyNGetOnePromotion implements Promotion {
+    private static final String PREFIX = "Buy ";
+    private static final String INFIX = ", get ";
+    private static final String SUFFIX = " free";
+
+    private final int paidUnits;
+    private final long groupSize;
+
+    /**
+     * Create a new buy x, get x+1 free promotion.
+     * @param paidUnits amount x that has to be bought to get one more unit for free, at least 1.
+     */
+    public BuyNGetOnePromotion(int paidUnits) {
+        if (paidUnits < 1) {
+            throw new IllegalArgumentException("Promotion needs a positive amount of paid units");
+        }
+        this.paidUnits = paidUnits;
+        groupSize = paidUnits + 1L;
+    }
+
+    /**
+     * Parse a promotion in the format "Buy x, get x+1 free".
+     * @param promotion string to be parsed.
+     * @return the parsed promotion or null if the string is in a different format.
+     */
+    static BuyNGetOnePromotion parse(String promotion) {
+        return parse(promotion, 0, promotion.length());
+    }
+
+    /**
+     * Parse a promotion in the format "Buy x, get x+1 free", e.g. "Buy 2, get 3rd free", in place.
+     * Both numbers are whole. Only x is used; like the format has always been read, the number
+     * of the free unit is not checked against it.
+     * @param s containing the promotion.
+     * @param start index of the first character of the promotion.
+     * @param end index after the last character of the promotion.
+     * @return the parsed promotion or null if the characters are in a different format.
+     */
+    static BuyNGetOnePromotion parse(CharSequence s, int start, int end) {
+        int i = start + PREFIX.length();
+        if (i > end || !regionMatches(s, start, PREFIX)) {
+            return null;
+        }
+        int paidEnd = skipDigits(s, i, end);
+        if (paidEnd == i || paidEnd - i > 9 || !regionMatches(s, paidEnd, INFIX) || paidEnd + INFIX.length() > end) {
+            return null;
+        }
+        long paidUnits = Long.parseLong(s, i, paidEnd, 10);
+        i = paidEnd + INFIX.length();
+        int freeEnd = skipDigits(s, i, end);
+        if (freeEnd == i || freeEnd + 2 > end) {
+            return null;
+        }
+        // An ordinal suffix such as "st", "nd", "rd" or "th".
+        if (freeEnd + 2 + SUFFIX.length() != end || !isLowerCase(s.charAt(freeEnd)) || !isLowerCase(s.charAt(freeEnd + 1))
+                || !regionMatches(s, freeEnd + 2, SUFFIX)) {
+            return null;
+        }
+        return new BuyNGetOnePromotion((int) paidUnits);
+    }
+
+    private static boolean regionMatches(CharSequence s, int from, String expected) {
+        if (from + expected.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (s.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipDigits(CharSequence s, int from, int end) {
+        while (from < end && s.charAt(from) >= '0' && s.charAt(from) <= '9') {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isLowerCase(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    public int getPaidUnits() {
+        return paidUnits;
+    }
+
+    /**
+     * Get the number of units that are paid for, every (x+1)th unit is free.
+     * @param amount of the product, not negative.
+     * @return the number of units that are not free.
+     */
+    public long getPaidAmount(long amount) {
+        return getPaidAmount(amount, groupSize);
+    }
+
+    /**
+     * Get the number of units that are paid for.
+     * @param amount of the product, not negative.
+     * @param groupSize x+1, the number of units of which one is free.
+     * @return the number of units that are not free.
+     */
+    static long getPaidAmount(long amount, long groupSize) {
+        return amount - amount / groupSize;
+    }
+
+    @Override
+    public long apply(long amount, long priceCents) {
+        return apply(amount, priceCents, groupSize);
+    }
+
+    /**
+     * Get the price of an amount of a product after a buy x, get x+1 free promotion.
+     * @param amount of the product, not negative.
+     * @param priceCents unit price of the product in cents.
+     * @param groupSize x+1, the number of units of which one is free.
+     * @return the price for the whole amount in cents.
+     * @throws ArithmeticException if the price exceeds the range of a {@code long}.
+     */
+    static long apply(long amount, long priceCents, long groupSize) {
+        return Math.multiplyExact(getPaidAmount(amount, groupSize), priceCents);
+    }
+
+    @Override
+    public long getDiscountCents(long amount, long priceCents) {
+        return Math.multiplyExact(amount / groupSize, priceCents);
+    }
+
+    @Override
+    public String toString() {
+        int free = paidUnits + 1;
+        String suffix;
+        if (free % 100 >= 11 && free % 100 <= 13) {
+            suffix = "th";
+        } else if (free % 10 == 1) {
+            suffix = "st";
+        } else if (free % 10 == 2) {
+            suffix = "nd";
+        } else if (free % 10 == 3) {
+            suffix = "rd";
+        } else {
+            suffix = "th";
+        }
+        return "Buy " + paidUnits + ", get " + free + suffix + " free";
+    }
+}
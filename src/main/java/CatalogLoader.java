@@ -0,0 +1,202 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads products and clients from CSV files. The fields are parsed in place, without
+ * regular expressions and without cutting the lines into substrings other than the SKU.
+ * <p>
+ * Products are given as {@code sku,unitCost,markup[,promotion]}, e.g.
+ * {@code D,0.60,1 EUR/unit,Buy 2, get 3rd free}. The promotion is the rest of the line,
+ * so it may contain commas. Clients are given as {@code id,basicDiscount,above10k,above30k},
+ * e.g. {@code 1,5%,0%,2%}. Empty lines and lines starting with '#' are skipped.
+ */
+public final class CatalogLoader {
+    private static final String FIXED_MARKUP_SUFFIX = " EUR/unit";
+    private static final String PERCENT_OFF_SUFFIX = "% off";
+    private static final String BUY_PREFIX = "Buy ";
+
+    private CatalogLoader() {
+    }
+
+    /**
+     * Add all products of a CSV file to a collection.
+     * @param path of the CSV file.
+     * @param products collection to which the products are added.
+     * @return the number of products added.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int loadProducts(Path path, ProductCollection products) throws IOException {
+        int count = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (isSkipped(line)) {
+                    continue;
+                }
+                try {
+                    products.add(parseProduct(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Add all clients of a CSV file to a collection.
+     * @param path of the CSV file.
+     * @param clients collection to which the clients are added.
+     * @return the number of clients added.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int loadClients(Path path, ClientCollection clients) throws IOException {
+        int count = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (isSkipped(line)) {
+                    continue;
+                }
+                try {
+                    clients.add(parseClient(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isSkipped(String line) {
+        return line.isEmpty() || line.charAt(0) == '#';
+    }
+
+    /**
+     * @param line the CSV line.
+     * @param from index at which the search starts.
+     * @return the index of the next ',' or the length of the line if there is none.
+     */
+    private static int nextComma(String line, int from) {
+        int comma = line.indexOf(',', from);
+        return comma < 0 ? line.length() : comma;
+    }
+
+    /**
+     * Parse a product from a CSV line.
+     * @param line in the format {@code sku,unitCost,markup[,promotion]}.
+     * @return the product.
+     */
+    static Product parseProduct(String line) {
+        int idEnd = nextComma(line, 0);
+        if (idEnd == 0) {
+            throw new IllegalArgumentException("SKU cannot be empty");
+        }
+        int costEnd = nextComma(line, idEnd + 1);
+        long unitCostCents = Money.parseScaled(line, idEnd + 1, costEnd, 2);
+        if (costEnd == line.length()) {
+            throw new IllegalArgumentException("Unsupported markup format.");
+        }
+        int markupEnd = nextComma(line, costEnd + 1);
+        Markup markup = parseMarkup(line, costEnd + 1, markupEnd);
+        Promotion promotion = markupEnd < line.length() ? parsePromotion(line, markupEnd + 1, line.length()) : null;
+        return new Product(line.substring(0, idEnd), Money.toEur(unitCostCents), markup, promotion);
+    }
+
+    private static Markup parseMarkup(String line, int start, int end) {
+        if (end > start && line.charAt(end - 1) == '%') {
+            return PercentageMarkup.ofBasisPoints(Money.parseScaled(line, start, end - 1, 2));
+        }
+        int valueEnd = end - FIXED_MARKUP_SUFFIX.length();
+        if (valueEnd > start && line.startsWith(FIXED_MARKUP_SUFFIX, valueEnd)) {
+            return FixedMarkup.ofCents(Money.parseScaled(line, start, valueEnd, 2));
+        }
+        throw new IllegalArgumentException("Unsupported markup format.");
+    }
+
+    private static Promotion parsePromotion(String line, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        int valueEnd = end - PERCENT_OFF_SUFFIX.length();
+        if (valueEnd > start && line.startsWith(PERCENT_OFF_SUFFIX, valueEnd)) {
+            return PercentOffPromotion.ofBasisPoints(Money.parseScaled(line, start, valueEnd, 2));
+        }
+        if (line.startsWith(BUY_PREFIX, start)) {
+            BuyNGetOnePromotion promotion = BuyNGetOnePromotion.parse(line, start, end);
+            if (promotion != null) {
+                return promotion;
+            }
+        }
+        // Formats that were registered later are only known to the registry.
+        return PromotionRegistry.getDefault().parse(line.substring(start, end));
+    }
+
+    /**
+     * Parse a client from a CSV line.
+     * @param line in the format {@code id,basicDiscount,above10k,above30k}.
+     * @return the client.
+     */
+    static Client parseClient(String line) {
+        int idEnd = nextComma(line, 0);
+        int id = parseInt(line, 0, idEnd);
+        int basicEnd = nextComma(line, idEnd + 1);
+        int above10kEnd = nextComma(line, basicEnd + 1);
+        if (above10kEnd == line.length()) {
+            throw new IllegalArgumentException("Client needs an id and three discounts");
+        }
+        return new Client(id,
+                parsePercentage(line, idEnd + 1, basicEnd),
+                parsePercentage(line, basicEnd + 1, above10kEnd),
+                parsePercentage(line, above10kEnd + 1, line.length()));
+    }
+
+    /**
+     * Parse a whole number in place.
+     * @param line containing the number.
+     * @param start index of the first character of the number.
+     * @param end index after the last character of the number.
+     * @return the number.
+     * @throws NumberFormatException unless the characters are an optional '-' followed by digits
+     * that fit in an {@code int}.
+     */
+    private static int parseInt(String line, int start, int end) {
+        int i = start;
+        boolean negative = i < end && line.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Not a whole number: \"" + line.substring(start, end) + "\"");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9' || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Not a whole number: \"" + line.substring(start, end) + "\"");
+            }
+            value = value * 10 + (c - '0');
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Not a whole number: \"" + line.substring(start, end) + "\"");
+        }
+        return (int) value;
+    }
+
+    private static long parsePercentage(String line, int start, int end) {
+        if (end <= start || line.charAt(end - 1) != '%') {
+            throw new IllegalArgumentException("Discount must be in the format \"n%\"");
+        }
+        return Money.parseScaled(line, start, end - 1, 2);
+    }
+}
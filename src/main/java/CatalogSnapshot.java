@@ -0,0 +1,223 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary snapshot of the products and clients. Markups and promotions are stored
+ * already parsed, so loading a snapshot is a single pass over a memory-mapped file.
+ * <p>
+ * Layout, big-endian: magic, version, product count, products, client count, clients.
+ * A product is its SKU as its length and UTF-8 bytes, unit cost in cents, markup kind and
+ * value, and promotion kind and value. Promotions in a format other than the built-in ones
+ * are stored as text. Snapshots of version 1, with a {@code char} id instead of the SKU,
+ * can still be loaded.
+ * A client is its id and its three discounts in basis points.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x43415447;
+    private static final int VERSION = 2;
+    private static final int VERSION_CHAR_IDS = 1;
+
+    private static final byte MARKUP_PERCENTAGE = 0;
+    private static final byte MARKUP_FIXED = 1;
+
+    private static final byte PROMOTION_NONE = 0;
+    private static final byte PROMOTION_PERCENT_OFF = 1;
+    private static final byte PROMOTION_BUY_N_GET_ONE = 2;
+    private static final byte PROMOTION_TEXT = 3;
+
+    /**
+     * Smallest size of a product, that of version 1 without a text promotion: id, unit cost,
+     * markup kind and value, promotion kind.
+     */
+    private static final int MIN_PRODUCT_BYTES = 2 + 8 + 1 + 8 + 1;
+    private static final int CLIENT_BYTES = 4 + 3 * 8;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Write the products and clients to a snapshot file.
+     * @param path of the snapshot file, replaced if it exists.
+     * @param products to be written.
+     * @param clients to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path path, ProductCollection products, ClientCollection clients) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(products.size());
+            for (Product product : products.getProducts()) {
+                byte[] sku = product.getSku().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(sku.length);
+                out.write(sku);
+                out.writeLong(product.getUnitCostCents());
+                writeMarkup(out, product.getMarkupRule());
+                writePromotion(out, product);
+            }
+            out.writeInt(clients.size());
+            for (Client client : clients.getClients()) {
+                out.writeInt(client.getId());
+                out.writeLong(client.getBasicClientDiscountBasisPoints());
+                out.writeLong(client.getAdditionalVolumeDiscountAbove10kBasisPoints());
+                out.writeLong(client.getAdditionalVolumeDiscountAbove30kBasisPoints());
+            }
+        }
+    }
+
+    private static void writeMarkup(DataOutputStream out, Markup markup) throws IOException {
+        if (markup instanceof PercentageMarkup percentage) {
+            out.writeByte(MARKUP_PERCENTAGE);
+            out.writeLong(percentage.getBasisPoints());
+        } else if (markup instanceof FixedMarkup fixed) {
+            out.writeByte(MARKUP_FIXED);
+            out.writeLong(fixed.getCentsPerUnit());
+        } else {
+            throw new IllegalArgumentException("Unsupported markup: " + markup);
+        }
+    }
+
+    private static void writePromotion(DataOutputStream out, Product product) throws IOException {
+        Promotion promotion = product.getPromotion();
+        if (promotion == null) {
+            out.writeByte(PROMOTION_NONE);
+        } else if (promotion instanceof PercentOffPromotion percentOff) {
+            out.writeByte(PROMOTION_PERCENT_OFF);
+            out.writeLong(percentOff.getBasisPoints());
+        } else if (promotion instanceof BuyNGetOnePromotion buyNGetOne) {
+            out.writeByte(PROMOTION_BUY_N_GET_ONE);
+            out.writeLong(buyNGetOne.getPaidUnits());
+        } else {
+            byte[] text = product.getProductPromotion().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(PROMOTION_TEXT);
+            out.writeInt(text.length);
+            out.write(text);
+        }
+    }
+
+    /**
+     * Add the products and clients of a snapshot file to the given collections.
+     * @param path of the snapshot file.
+     * @param products collection to which the products are added.
+     * @param clients collection to which the clients are added.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a snapshot of this version or is truncated.
+     */
+    public static void load(Path path, ProductCollection products, ClientCollection clients) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException(path + " is not a catalog snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION && version != VERSION_CHAR_IDS) {
+            throw new IllegalArgumentException(path + " has an unsupported snapshot version");
+        }
+        try {
+            int productCount = buffer.getInt();
+            checkCount(path, buffer, productCount, MIN_PRODUCT_BYTES);
+            for (int i = 0; i < productCount; i++) {
+                String sku = version == VERSION_CHAR_IDS ? String.valueOf(buffer.getChar()) : readText(buffer);
+                long unitCostCents = buffer.getLong();
+                Markup markup = readMarkup(buffer);
+                Promotion promotion = readPromotion(buffer);
+                products.add(new Product(sku, Money.toEur(unitCostCents), markup, promotion));
+            }
+            int clientCount = buffer.getInt();
+            checkCount(path, buffer, clientCount, CLIENT_BYTES);
+            for (int i = 0; i < clientCount; i++) {
+                clients.add(new Client(buffer.getInt(), buffer.getLong(), buffer.getLong(), buffer.getLong()));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(path + " is truncated", e);
+        }
+    }
+
+    /**
+     * Check that a count of records is not negative and that the records can fit in the rest of the file.
+     */
+    private static void checkCount(Path path, ByteBuffer buffer, int count, int minRecordBytes) {
+        if (count < 0) {
+            throw new IllegalArgumentException(path + " is not a catalog snapshot: negative count " + count);
+        }
+        if ((long) count * minRecordBytes > buffer.remaining()) {
+            throw new IllegalArgumentException(path + " is truncated");
+        }
+    }
+
+    /**
+     * Write a snapshot of the sample catalog of {@link Main}, or of a catalog in CSV files,
+     * to be loaded by {@code Main} at startup with {@code -Dpricing.image=<snapshot>}.
+     * Usage: {@code CatalogSnapshot <snapshot> [products.csv clients.csv]}.
+     * @param args path of the snapshot, optionally followed by the CSV files.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        ProductCollection products;
+        ClientCollection clients;
+        if (args.length >= 3) {
+            products = new ProductCollection();
+            clients = new ClientCollection();
+            CatalogLoader.loadProducts(Path.of(args[1]), products);
+            CatalogLoader.loadClients(Path.of(args[2]), clients);
+        } else {
+            products = Main.createProducts();
+            clients = Main.createClients();
+        }
+        write(Path.of(args[0]), products, clients);
+    }
+
+    private static Markup readMarkup(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        long value = buffer.getLong();
+        switch (kind) {
+            case MARKUP_PERCENTAGE:
+                return PercentageMarkup.ofBasisPoints(value);
+            case MARKUP_FIXED:
+                return FixedMarkup.ofCents(value);
+            default:
+                throw new IllegalArgumentException("Unsupported markup kind: " + kind);
+        }
+    }
+
+    private static Promotion readPromotion(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        switch (kind) {
+            case PROMOTION_NONE:
+                return null;
+            case PROMOTION_PERCENT_OFF:
+                return PercentOffPromotion.ofBasisPoints(buffer.getLong());
+            case PROMOTION_BUY_N_GET_ONE:
+                return new BuyNGetOnePromotion(Math.toIntExact(buffer.getLong()));
+            case PROMOTION_TEXT:
+                return PromotionRegistry.getDefault().parse(readText(buffer));
+            default:
+                throw new IllegalArgumentException("Unsupported promotion kind: " + kind);
+        }
+    }
+
+    /**
+     * Read a text stored as its length and UTF-8 bytes.
+     * @throws BufferUnderflowException if the length is negative or past the end of the file.
+     */
+    private static String readText(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] text = new byte[length];
+        buffer.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Immutable version of the product catalog. The products of a version are private copies
+ * that are never changed, so every line of an order priced against the same version uses
+ * the same prices, whatever happens to the catalog in the meantime.
+ */
+public final class CatalogVersion {
+    private final long version;
+    private final Product[] ordered;
+    private final Product[] byId;
+
+    /**
+     * Create a version that takes ownership of the given products.
+     * @param version number of this version.
+     * @param ordered products in id order, which must not be changed afterwards.
+     */
+    CatalogVersion(long version, Product[] ordered) {
+        this.version = version;
+        this.ordered = ordered;
+        // Only single-character SKUs can be looked up by id; products with wider SKUs are priced by index.
+        int maxId = -1;
+        for (Product product : ordered) {
+            if (product.hasCharId()) {
+                maxId = Math.max(maxId, product.getSku().charAt(0));
+            }
+        }
+        byId = new Product[maxId + 1];
+        for (Product product : ordered) {
+            if (product.hasCharId()) {
+                byId[product.getSku().charAt(0)] = product;
+            }
+        }
+    }
+
+    /**
+     * Freeze the current state of a product collection.
+     * @param version number of this version.
+     * @param products of which copies are taken.
+     * @return the new version.
+     */
+    static CatalogVersion copyOf(long version, ProductCollection products) {
+        Product[] ordered = new Product[products.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = new Product(products.get(i));
+        }
+        return new CatalogVersion(version, ordered);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of products in this version.
+     */
+    public int size() {
+        return ordered.length;
+    }
+
+    /**
+     * @param index position of the product SKU in the ordered SKUs.
+     * @return the SKU of the product.
+     */
+    public String getSku(int index) {
+        return ordered[index].getSku();
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @return the id of the product.
+     * @throws IllegalStateException if the SKU of the product is longer than one character.
+     */
+    public char getId(int index) {
+        String sku = getSku(index);
+        if (sku.length() != 1) {
+            throw new IllegalStateException("Product " + sku + " has no single-character id");
+        }
+        return sku.charAt(0);
+    }
+
+    /**
+     * @param id of a product.
+     * @return whether this version has a product with the id.
+     */
+    public boolean contains(char id) {
+        return id < byId.length && byId[id] != null;
+    }
+
+    /**
+     * @param id of the product.
+     * @return a copy of the product that can be changed without affecting this version.
+     */
+    public Product getProduct(char id) {
+        return new Product(require(id));
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @return the unit price with the markup applied in cents.
+     */
+    public long getUnitPriceCents(int index) {
+        return ordered[index].getUnitPriceWithMarkupCents();
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @param amount of the product requested for purchase.
+     * @return the full price of the product in cents, see {@link Product#checkTotalPriceCents(long)}.
+     */
+    public long checkTotalPriceCents(int index, int amount) {
+        return ordered[index].checkTotalPriceCents(amount);
+    }
+
+    /**
+     * @param id of the product.
+     * @param amount of the product requested for purchase.
+     * @return the full price of the product in cents, see {@link Product#checkTotalPriceCents(long)}.
+     */
+    public long checkTotalPriceCents(char id, int amount) {
+        return require(id).checkTotalPriceCents(amount);
+    }
+
+    private Product require(char id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("There is no product with ID: " + id);
+        }
+        return byId[id];
+    }
+
+    /**
+     * @return the products of this version in id order. They must not be changed.
+     */
+    Product[] getOrderedProducts() {
+        return ordered;
+    }
+}
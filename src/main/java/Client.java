@@ -1,12 +1,21 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Class that represents a client of the baverage producer.
+ * Discounts are kept in basis points and the expenditure in cents, see {@link Money}.
  */
 public class Client {
+    private static final long VOLUME_10K_CENTS = 10000_00;
+    private static final long VOLUME_30K_CENTS = 30000_00;
+
     private final int id;
-    private double basicClientDiscount;
-    private double additionalVolumeDiscountAbove10k;
-    private double additionalVolumeDiscountAbove30k;
-    private double totalEURSpent = 0;
+    private long basicClientDiscount;
+    private long additionalVolumeDiscountAbove10k;
+    private long additionalVolumeDiscountAbove30k;
+    private final AtomicLong totalCentsSpent = new AtomicLong();
+    private ReceiptRenderer renderer = ReceiptRenderer.console();
 
     /**
      * Create a new client.
@@ -16,105 +25,293 @@ public class Client {
      * @param additionalVolumeDiscountAbove30k must be between 0% and 100%.
      */
     public Client(int id, String basicClientDiscount, String additionalVolumeDiscountAbove10k, String additionalVolumeDiscountAbove30k) {
+        this(id, parsePercentage(basicClientDiscount), parsePercentage(additionalVolumeDiscountAbove10k), parsePercentage(additionalVolumeDiscountAbove30k));
+    }
+
+    /**
+     * Create a new client with discounts that are already parsed.
+     * @param id unique identifier of the client.
+     * @param basicClientDiscount in basis points, must be between 0% and 100%.
+     * @param additionalVolumeDiscountAbove10k in basis points, must be between 0% and 100%.
+     * @param additionalVolumeDiscountAbove30k in basis points, must be between 0% and 100%.
+     */
+    public Client(int id, long basicClientDiscount, long additionalVolumeDiscountAbove10k, long additionalVolumeDiscountAbove30k) {
         this.id = id;
-        this.basicClientDiscount = Double.parseDouble(removeLastCharacter(basicClientDiscount));
-        this.additionalVolumeDiscountAbove10k = Double.parseDouble(removeLastCharacter(additionalVolumeDiscountAbove10k));
-        this.additionalVolumeDiscountAbove30k = Double.parseDouble(removeLastCharacter(additionalVolumeDiscountAbove30k));
-        if (!(this.basicClientDiscount >= 0 && this.basicClientDiscount <= 100)) {
+        this.basicClientDiscount = basicClientDiscount;
+        this.additionalVolumeDiscountAbove10k = additionalVolumeDiscountAbove10k;
+        this.additionalVolumeDiscountAbove30k = additionalVolumeDiscountAbove30k;
+        if (!(this.basicClientDiscount >= 0 && this.basicClientDiscount <= Money.FULL_PERCENTAGE)) {
             throw new IllegalArgumentException("Basic Client Discount needs to be between 0% and 100%");
         }
-        if (!(this.additionalVolumeDiscountAbove10k >= 0 && this.additionalVolumeDiscountAbove10k <= 100)) {
+        if (!(this.additionalVolumeDiscountAbove10k >= 0 && this.additionalVolumeDiscountAbove10k <= Money.FULL_PERCENTAGE)) {
             throw new IllegalArgumentException("Additional Volume Discount Above EUR 10 000 needs to be a between 0% and 100%");
         }
-        if (!(this.additionalVolumeDiscountAbove30k >= 0 && this.additionalVolumeDiscountAbove30k <= 100)) {
+        if (!(this.additionalVolumeDiscountAbove30k >= 0 && this.additionalVolumeDiscountAbove30k <= Money.FULL_PERCENTAGE)) {
             throw new IllegalArgumentException("Additional Volume Discount Above EUR 30 000 needs to be a between 0% and 100%");
         }
     }
 
     /**
-     * Used to omit the '%' of the discount strings.
-     * @param s
-     * @return s with the last character omitted.
+     * Used to parse the discount strings, omitting the '%'.
+     * @param s discount in the format "n%".
+     * @return the discount in basis points.
      */
-    private String removeLastCharacter(String s) {
-        return s.substring(0, s.length() - 1);
+    private static long parsePercentage(String s) {
+        return Money.parseScaled(s, 0, s.length() - 1, 2);
     }
 
     public int getId() {
         return id;
     }
 
-    public double getBasicClientDiscount() {
+    public long getBasicClientDiscountBasisPoints() {
         return basicClientDiscount;
     }
 
+    public long getAdditionalVolumeDiscountAbove10kBasisPoints() {
+        return additionalVolumeDiscountAbove10k;
+    }
+
+    public long getAdditionalVolumeDiscountAbove30kBasisPoints() {
+        return additionalVolumeDiscountAbove30k;
+    }
+
+    public double getBasicClientDiscount() {
+        return basicClientDiscount / 100.0;
+    }
+
     public void setBasicClientDiscount(double basicClientDiscount) {
-        this.basicClientDiscount = basicClientDiscount;
+        this.basicClientDiscount = Money.toBasisPoints(basicClientDiscount);
     }
 
     public double getAdditionalVolumeDiscountAbove10k() {
-        return additionalVolumeDiscountAbove10k;
+        return additionalVolumeDiscountAbove10k / 100.0;
     }
 
     public void setAdditionalVolumeDiscountAbove10k(double additionalVolumeDiscountAbove10k) {
-        this.additionalVolumeDiscountAbove10k = additionalVolumeDiscountAbove10k;
+        this.additionalVolumeDiscountAbove10k = Money.toBasisPoints(additionalVolumeDiscountAbove10k);
     }
 
     public double getAdditionalVolumeDiscountAbove30k() {
-        return additionalVolumeDiscountAbove30k;
+        return additionalVolumeDiscountAbove30k / 100.0;
     }
 
     public void setAdditionalVolumeDiscountAbove30k(double additionalVolumeDiscountAbove30k) {
-        this.additionalVolumeDiscountAbove30k = additionalVolumeDiscountAbove30k;
+        this.additionalVolumeDiscountAbove30k = Money.toBasisPoints(additionalVolumeDiscountAbove30k);
+    }
+
+    public ReceiptRenderer getRenderer() {
+        return renderer;
     }
 
     /**
-     * Used to round a number (price in EUR) to 2 decimals.
-     * @param number to be rounded.
-     * @return the number rounded to 2 decimals.
+     * Set where the details of the orders of this client are presented.
+     * @param renderer used by {@link #addToOrder(Product, int)} and {@link #finishOrder()}.
      */
-    private double round2(double number) {
-        return Math.round(number * 100.0) / 100.0;
+    public void setRenderer(ReceiptRenderer renderer) {
+        this.renderer = renderer;
     }
 
     /**
      * Add a specified amount of a specified product to the client's order.
-     * Print details and update the client's expenditure.
+     * Render details and update the client's expenditure.
      * @param product to be added to the order.
      * @param amount of the product to be added to the order.
      */
     public void addToOrder(Product product, int amount) {
-        double totalProductPrice = product.checkTotalPrice(amount);
-        double unitProductPriceWithMarkup = product.getUnitPriceWithMarkup();
-        System.out.println("Product: " + product.getId());
-        System.out.println("Amount: " + amount);
-        System.out.println("Unit price: " + unitProductPriceWithMarkup);
-        if (round2(unitProductPriceWithMarkup * amount) != totalProductPrice) {
-            System.out.println("Mean promotional unit price: " + totalProductPrice / amount);
+        long start = PricingMetrics.ENABLED ? System.nanoTime() : 0;
+        ReceiptLine line = new ReceiptLine(product, amount);
+        renderer.renderLine(line);
+        totalCentsSpent.addAndGet(line.getTotalCents());
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.get().recordAddToOrder(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Change the amount of a product that was added to the client's order, in constant time.
+     * The difference is priced the same way as {@link #addToOrder(Product, int)}, so adjusting
+     * a line to 0 takes back exactly what adding it cost. Nothing is rendered.
+     * @param product of which the amount changes.
+     * @param oldAmount of the product that was added to the order.
+     * @param newAmount of the product that the order should contain, 0 to remove it.
+     */
+    public void adjustOrder(Product product, int oldAmount, int newAmount) {
+        long difference = product.checkTotalPriceCents(newAmount) - product.checkTotalPriceCents(oldAmount);
+        long cents;
+        do {
+            cents = totalCentsSpent.get();
+            if (cents + difference < 0) {
+                throw new IllegalArgumentException("Cannot remove more than was added to the order.");
+            }
+        } while (!totalCentsSpent.compareAndSet(cents, cents + difference));
+    }
+
+    /**
+     * Add orders that were priced without this client object, e.g. recovered from an
+     * {@link OrderJournal}, to the client's expenditure. Nothing is rendered.
+     * @param cents total of the orders after client discounts, not negative.
+     */
+    void addToExpenditure(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("Expenditure cannot be negative.");
         }
-        System.out.println("Total: " + totalProductPrice + '\n');
-        totalEURSpent = round2(totalEURSpent + totalProductPrice);
+        totalCentsSpent.addAndGet(cents);
+    }
+
+    /**
+     * Remove a specified amount of a specified product from the client's order, see
+     * {@link #adjustOrder(Product, int, int)}.
+     * @param product to be removed from the order.
+     * @param amount of the product that was added to the order.
+     */
+    public void removeFromOrder(Product product, int amount) {
+        adjustOrder(product, amount, 0);
+    }
+
+    /**
+     * @return the running total of the client's order before client discounts in cents.
+     */
+    public long getOrderTotalCents() {
+        return totalCentsSpent.get();
+    }
+
+    /**
+     * Get the volume discount that the client's order reaches so far, in constant time.
+     * @return the kind of volume discount or null if there is none yet.
+     */
+    public DiscountStep.Kind getVolumeTier() {
+        return getVolumeTier(applyBasicDiscount(totalCentsSpent.get()));
+    }
+
+    /**
+     * Get what {@link #finishOrder()} would return if the order was finished now, in constant time.
+     * @return the total price after client discounts in EUR.
+     */
+    public double getProjectedTotal() {
+        return Money.toEur(getProjectedTotalCents());
+    }
+
+    /**
+     * Get what {@link #finishOrder()} would return if the order was finished now, in constant time.
+     * @return the total price after client discounts in cents.
+     */
+    public long getProjectedTotalCents() {
+        return applyDiscounts(totalCentsSpent.get());
     }
 
     /**
      * Finish order and apply the client's discounts.
-     * Print details and update the client's expenditure.
+     * Render details and update the client's expenditure.
      * @return the total amount spent for the order in EUR.
      */
     public double finishOrder() {
-        System.out.println("Total price before client discounts: " + totalEURSpent + " EUR.");
+        long start = PricingMetrics.ENABLED ? System.nanoTime() : 0;
+        long centsBeforeDiscounts;
+        long centsSpent;
+        do {
+            centsBeforeDiscounts = totalCentsSpent.get();
+            centsSpent = applyDiscounts(centsBeforeDiscounts);
+        } while (!totalCentsSpent.compareAndSet(centsBeforeDiscounts, centsSpent));
+        double totalEURSpent = Money.toEur(centsSpent);
+        List<DiscountStep> steps = getDiscountSteps(centsBeforeDiscounts);
+        renderer.renderTotals(Money.toEur(centsBeforeDiscounts), steps, totalEURSpent);
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics metrics = PricingMetrics.get();
+            metrics.recordOrder(steps.isEmpty() ? null : steps.get(steps.size() - 1).getKind());
+            metrics.recordFinishOrder(System.nanoTime() - start);
+        }
+        return totalEURSpent;
+    }
+
+    /**
+     * Start a new order that is accumulated separately from the client's expenditure,
+     * so that many orders of the same client can be priced concurrently.
+     * @return an empty order of this client.
+     */
+    public OrderAccumulator openOrder() {
+        return new OrderAccumulator(this);
+    }
+
+    /**
+     * Price a whole order without rendering anything or changing the client's expenditure.
+     * @param lines of the order.
+     * @return the receipt of the order.
+     */
+    public Receipt checkout(List<ReceiptLine> lines) {
+        long totalBeforeDiscounts = 0;
+        for (ReceiptLine line : lines) {
+            totalBeforeDiscounts += line.getTotalCents();
+        }
+        return new Receipt(id, lines, totalBeforeDiscounts, getDiscountSteps(totalBeforeDiscounts), applyDiscounts(totalBeforeDiscounts));
+    }
+
+    /**
+     * Apply a discount to a total.
+     * @param cents total price in cents.
+     * @param discount in basis points between 0% and 100%.
+     * @return the discounted price, rounded to whole cents.
+     */
+    private static long applyDiscount(long cents, long discount) {
+        return Money.percentOf(cents, Money.FULL_PERCENTAGE - discount);
+    }
+
+    /**
+     * Apply the basic client discount to a total.
+     * @param cents total price in cents.
+     * @return the total price after the basic client discount in cents.
+     */
+    private long applyBasicDiscount(long cents) {
+        return basicClientDiscount == 0 ? cents : applyDiscount(cents, basicClientDiscount);
+    }
+
+    /**
+     * Get the volume discount that applies to a total after the basic client discount.
+     * @param cents total price in cents after the basic client discount.
+     * @return the kind of volume discount or null if there is none.
+     */
+    private DiscountStep.Kind getVolumeTier(long cents) {
+        if (cents >= VOLUME_30K_CENTS && additionalVolumeDiscountAbove30k > 0) {
+            return DiscountStep.Kind.ABOVE_30K;
+        } else if (cents >= VOLUME_10K_CENTS) {
+            return DiscountStep.Kind.ABOVE_10K;
+        }
+        return null;
+    }
+
+    /**
+     * Get the client's discounts that apply to a total, in the order in which they are applied.
+     * @param cents total price of the order before client discounts in cents.
+     * @return the discounts with the intermediate totals.
+     */
+    List<DiscountStep> getDiscountSteps(long cents) {
+        List<DiscountStep> steps = new ArrayList<>(2);
         if (basicClientDiscount != 0) {
-            totalEURSpent = round2(totalEURSpent * (100 - basicClientDiscount) / 100);
-            System.out.println("Total price after " + basicClientDiscount + "% client discount: " + totalEURSpent + " EUR");
+            cents = applyDiscount(cents, basicClientDiscount);
+            steps.add(new DiscountStep(DiscountStep.Kind.BASIC, basicClientDiscount, cents));
         }
-        if (totalEURSpent >= 30000 && additionalVolumeDiscountAbove30k > 0) {
-            totalEURSpent = round2(totalEURSpent * (100 - additionalVolumeDiscountAbove30k) / 100);
-            System.out.println("Total price after " + additionalVolumeDiscountAbove30k + "% client discount for spending above 30 000 EUR: " + totalEURSpent + " EUR");
-        } else if (totalEURSpent >= 10000) {
-            totalEURSpent = round2(totalEURSpent * (100 - additionalVolumeDiscountAbove10k) / 100);
-            System.out.println("Total price after " + additionalVolumeDiscountAbove10k + "% client discount for spending above 10 000 EUR: " + totalEURSpent + " EUR");
+        DiscountStep.Kind tier = getVolumeTier(cents);
+        if (tier != null) {
+            long discount = tier == DiscountStep.Kind.ABOVE_30K ? additionalVolumeDiscountAbove30k : additionalVolumeDiscountAbove10k;
+            steps.add(new DiscountStep(tier, discount, applyDiscount(cents, discount)));
         }
-        System.out.println("Total price: " + totalEURSpent + " EUR");
-        return totalEURSpent;
+        return steps;
+    }
+
+    /**
+     * Apply the client's discounts to a total without rendering anything or
+     * changing the client's expenditure. Gives the same result as {@link #finishOrder()}.
+     * @param cents total price of the order before client discounts in cents.
+     * @return the total price after client discounts in cents.
+     */
+    long applyDiscounts(long cents) {
+        cents = applyBasicDiscount(cents);
+        DiscountStep.Kind tier = getVolumeTier(cents);
+        if (tier == DiscountStep.Kind.ABOVE_30K) {
+            cents = applyDiscount(cents, additionalVolumeDiscountAbove30k);
+        } else if (tier == DiscountStep.Kind.ABOVE_10K) {
+            cents = applyDiscount(cents, additionalVolumeDiscountAbove10k);
+        }
+        return cents;
     }
 }
@@ -1,11 +1,33 @@
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Class that facilitates storing and managing multiple clients.
+ * Clients can be added, retrieved and removed from many threads at the same time.
+ * The clients are spread over stripes, each an {@link IntObjectMap} guarded by its own lock,
+ * so ids are never boxed. Lookups are optimistic and only take the lock when they
+ * overlap with a change of the same stripe.
  */
 public class ClientCollection {
-    private Map<Integer, Client> clients = new HashMap<>();
+    private static final int STRIPES = 16;
+
+    @SuppressWarnings("unchecked")
+    private final IntObjectMap<Client>[] stripes = (IntObjectMap<Client>[]) new IntObjectMap<?>[STRIPES];
+    private final StampedLock[] locks = new StampedLock[STRIPES];
+
+    public ClientCollection() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new IntObjectMap<>();
+            locks[i] = new StampedLock();
+        }
+    }
+
+    private static int stripe(int id) {
+        return (id ^ (id >>> 16)) & (STRIPES - 1);
+    }
 
     /**
      * Add a client to the collection. Assert that there are
@@ -13,10 +35,15 @@ public class ClientCollection {
      * @param client to be added in the collection.
      */
     void add(Client client) {
-        if (clients.containsKey(client.getId())) {
-            throw new IllegalArgumentException("There is already a client with ID: " + client.getId());
+        int s = stripe(client.getId());
+        long stamp = locks[s].writeLock();
+        try {
+            if (stripes[s].putIfAbsent(client.getId(), client) != null) {
+                throw new IllegalArgumentException("There is already a client with ID: " + client.getId());
+            }
+        } finally {
+            locks[s].unlockWrite(stamp);
         }
-        clients.put(client.getId(), client);
     }
 
     /**
@@ -25,7 +52,21 @@ public class ClientCollection {
      * @return the client with the corresponding id.
      */
     Client get(int id) {
-        return clients.get(id);
+        int s = stripe(id);
+        StampedLock lock = locks[s];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Client client = stripes[s].get(id);
+            if (lock.validate(stamp)) {
+                return client;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return stripes[s].get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -33,6 +74,65 @@ public class ClientCollection {
      * @param id of the client to be removed.
      */
     void remove(int id) {
-        clients.remove(id);
+        int s = stripe(id);
+        long stamp = locks[s].writeLock();
+        try {
+            stripes[s].remove(id);
+        } finally {
+            locks[s].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the clients in the collection, in no particular order.
+     */
+    Collection<Client> getClients() {
+        List<Client> clients = new ArrayList<>();
+        for (int s = 0; s < STRIPES; s++) {
+            long stamp = locks[s].readLock();
+            try {
+                clients.addAll(stripes[s].values());
+            } finally {
+                locks[s].unlockRead(stamp);
+            }
+        }
+        return Collections.unmodifiableList(clients);
+    }
+
+    /**
+     * @return the number of clients in the collection.
+     */
+    int size() {
+        int size = 0;
+        for (int s = 0; s < STRIPES; s++) {
+            long stamp = locks[s].readLock();
+            try {
+                size += stripes[s].size();
+            } finally {
+                locks[s].unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the memory used to index the clients, without the clients themselves,
+     * next to the estimate for a {@code HashMap<Integer, Client>} with the same clients.
+     * @return a one-line report.
+     */
+    String getFootprintReport() {
+        long bytes = 0;
+        int size = 0;
+        for (int s = 0; s < STRIPES; s++) {
+            long stamp = locks[s].readLock();
+            try {
+                bytes += stripes[s].estimateBytes();
+                size += stripes[s].size();
+            } finally {
+                locks[s].unlockRead(stamp);
+            }
+        }
+        return size + " clients: " + bytes + " bytes in int-keyed stripes, about "
+                + IntObjectMap.estimateHashMapBytes(size) + " bytes in a HashMap<Integer, Client>";
     }
 }
@@ -0,0 +1,310 @@
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Catalog stored as parallel arrays indexed by the position of the product SKU in the
+ * ordered SKUs, the same positions as {@link ProductCollection#get(int)}.
+ * Scanning the whole catalog, e.g. to reprice it or to price an order, runs over
+ * contiguous memory instead of following a reference per product.
+ * <p>
+ * Only the built-in markups and promotions have a column representation. Products with
+ * any other promotion keep their promotion object, which is used for those products only.
+ * {@link #getProduct(int)} gives a {@link Product} view that reads and writes the columns.
+ */
+public class ColumnarCatalog {
+    static final byte MARKUP_PERCENTAGE = 0;
+    static final byte MARKUP_FIXED = 1;
+
+    static final byte PROMOTION_NONE = 0;
+    static final byte PROMOTION_PERCENT_OFF = 1;
+    static final byte PROMOTION_BUY_N_GET_ONE = 2;
+    static final byte PROMOTION_OTHER = 3;
+
+    private final String[] skus;
+    private final long[] unitCostCents;
+    private final byte[] markupKinds;
+    private final long[] markupValues;
+    private final byte[] promotionKinds;
+    private final long[] promotionValues;
+    private final Promotion[] otherPromotions;
+    private final long[] unitPriceCents;
+
+    /**
+     * Copy the products of a collection into columns.
+     * @param products to be copied.
+     */
+    public ColumnarCatalog(ProductCollection products) {
+        int size = products.size();
+        skus = new String[size];
+        unitCostCents = new long[size];
+        markupKinds = new byte[size];
+        markupValues = new long[size];
+        promotionKinds = new byte[size];
+        promotionValues = new long[size];
+        otherPromotions = new Promotion[size];
+        unitPriceCents = new long[size];
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            skus[i] = product.getSku();
+            unitCostCents[i] = product.getUnitCostCents();
+            storeMarkup(i, product.getMarkupRule());
+            storePromotion(i, product.getPromotion());
+        }
+        updateUnitPrices();
+    }
+
+    private void storeMarkup(int ordinal, Markup markup) {
+        if (markup instanceof PercentageMarkup percentage) {
+            markupKinds[ordinal] = MARKUP_PERCENTAGE;
+            markupValues[ordinal] = percentage.getBasisPoints();
+        } else if (markup instanceof FixedMarkup fixed) {
+            markupKinds[ordinal] = MARKUP_FIXED;
+            markupValues[ordinal] = fixed.getCentsPerUnit();
+        } else {
+            throw new IllegalArgumentException("Unsupported markup: " + markup);
+        }
+    }
+
+    private void storePromotion(int ordinal, Promotion promotion) {
+        otherPromotions[ordinal] = null;
+        if (promotion == null) {
+            promotionKinds[ordinal] = PROMOTION_NONE;
+        } else if (promotion instanceof PercentOffPromotion percentOff) {
+            promotionKinds[ordinal] = PROMOTION_PERCENT_OFF;
+            promotionValues[ordinal] = percentOff.getBasisPoints();
+        } else if (promotion instanceof BuyNGetOnePromotion buyNGetOne) {
+            promotionKinds[ordinal] = PROMOTION_BUY_N_GET_ONE;
+            promotionValues[ordinal] = buyNGetOne.getPaidUnits() + 1L;
+        } else {
+            promotionKinds[ordinal] = PROMOTION_OTHER;
+            otherPromotions[ordinal] = promotion;
+        }
+    }
+
+    private Markup loadMarkup(int ordinal) {
+        return markupKinds[ordinal] == MARKUP_PERCENTAGE
+                ? PercentageMarkup.ofBasisPoints(markupValues[ordinal])
+                : FixedMarkup.ofCents(markupValues[ordinal]);
+    }
+
+    private Promotion loadPromotion(int ordinal) {
+        switch (promotionKinds[ordinal]) {
+            case PROMOTION_PERCENT_OFF:
+                return PercentOffPromotion.ofBasisPoints(promotionValues[ordinal]);
+            case PROMOTION_BUY_N_GET_ONE:
+                return new BuyNGetOnePromotion(Math.toIntExact(promotionValues[ordinal] - 1));
+            case PROMOTION_OTHER:
+                return otherPromotions[ordinal];
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Recompute the unit price column from the unit cost and markup columns.
+     */
+    private void updateUnitPrices() {
+        for (int i = 0; i < skus.length; i++) {
+            updateUnitPrice(i);
+        }
+    }
+
+    private void updateUnitPrice(int ordinal) {
+        unitPriceCents[ordinal] = markupKinds[ordinal] == MARKUP_PERCENTAGE
+                ? PercentageMarkup.getUnitPriceCents(unitCostCents[ordinal], markupValues[ordinal])
+                : FixedMarkup.getUnitPriceCents(unitCostCents[ordinal], markupValues[ordinal]);
+    }
+
+    /**
+     * @return the number of products in the catalog.
+     */
+    public int size() {
+        return skus.length;
+    }
+
+    /**
+     * @param ordinal position of the product SKU in the ordered SKUs.
+     * @return the id of the product.
+     * @throws IllegalStateException if the SKU of the product is longer than one character.
+     */
+    public char getId(int ordinal) {
+        if (skus[ordinal].length() != 1) {
+            throw new IllegalStateException("Product " + skus[ordinal] + " has no single-character id");
+        }
+        return skus[ordinal].charAt(0);
+    }
+
+    /**
+     * @param ordinal position of the product SKU in the ordered SKUs.
+     * @return the SKU of the product.
+     */
+    public String getSku(int ordinal) {
+        return skus[ordinal];
+    }
+
+    public long getUnitCostCents(int ordinal) {
+        return unitCostCents[ordinal];
+    }
+
+    public long getUnitPriceCents(int ordinal) {
+        return unitPriceCents[ordinal];
+    }
+
+    /**
+     * Get the full price of a product for a specified amount, the same as
+     * {@link Product#checkTotalPriceCents(long)}. The columns are priced with the same
+     * static helpers as the markup and promotion classes, so both give the same prices.
+     * The price cache and metrics of {@link Product} are not used.
+     * @param ordinal position of the product SKU in the ordered SKUs.
+     * @param amount of the product requested for purchase.
+     * @return the full price in cents after applying markup and product promotion.
+     */
+    public long checkTotalPriceCents(int ordinal, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot buy a negative amount.");
+        }
+        long price = unitPriceCents[ordinal];
+        switch (promotionKinds[ordinal]) {
+            case PROMOTION_PERCENT_OFF:
+                return PercentOffPromotion.apply(amount, price, promotionValues[ordinal]);
+            case PROMOTION_BUY_N_GET_ONE:
+                return BuyNGetOnePromotion.apply(amount, price, promotionValues[ordinal]);
+            case PROMOTION_OTHER:
+                return otherPromotions[ordinal].apply(amount, price);
+            default:
+                return Math.multiplyExact(amount, price);
+        }
+    }
+
+    /**
+     * Price an amount of every product at once.
+     * @param amounts of each product, indexed by ordinal.
+     * @param totals receives the full price of each product in cents, indexed by ordinal.
+     * @return the sum of all totals in cents.
+     */
+    public long checkTotalPricesCents(int[] amounts, long[] totals) {
+        long sum = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            totals[i] = checkTotalPriceCents(i, amounts[i]);
+            sum += totals[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Change the unit cost of every product and update the unit prices. If any new unit cost
+     * is invalid, the catalog is left unchanged.
+     * @param update maps the current unit cost in cents to the new one, which must be positive.
+     */
+    public void repriceUnitCosts(LongUnaryOperator update) {
+        long[] costs = new long[skus.length];
+        for (int i = 0; i < skus.length; i++) {
+            costs[i] = update.applyAsLong(unitCostCents[i]);
+            if (costs[i] <= 0) {
+                throw new IllegalArgumentException("Unit cost must be positive");
+            }
+        }
+        System.arraycopy(costs, 0, unitCostCents, 0, skus.length);
+        updateUnitPrices();
+    }
+
+    /**
+     * Get a view of a product. The view reads its unit cost, markup, promotion and prices from
+     * the columns, so it sees e.g. {@link #repriceUnitCosts(LongUnaryOperator)}, and its setters
+     * write the columns. Its prices are not cached and not counted in {@link PricingMetrics}.
+     * Use {@link Product#Product(Product)} for a copy that is not connected to the catalog.
+     * @param ordinal position of the product SKU in the ordered SKUs.
+     * @return a view of the product.
+     */
+    public Product getProduct(int ordinal) {
+        return new ProductView(ordinal);
+    }
+
+    /**
+     * Product that delegates everything but its SKU to the columns of one ordinal.
+     */
+    private final class ProductView extends Product {
+        private final int ordinal;
+
+        ProductView(int ordinal) {
+            super(skus[ordinal], Money.toEur(unitCostCents[ordinal]), loadMarkup(ordinal), loadPromotion(ordinal));
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public double getUnitCost() {
+            return Money.toEur(unitCostCents[ordinal]);
+        }
+
+        @Override
+        public long getUnitCostCents() {
+            return unitCostCents[ordinal];
+        }
+
+        @Override
+        public void setUnitCost(double unitCost) {
+            long cents = Money.toCents(unitCost);
+            if (cents <= 0) {
+                throw new IllegalArgumentException("Unit cost must be positive");
+            }
+            unitCostCents[ordinal] = cents;
+            updateUnitPrice(ordinal);
+        }
+
+        @Override
+        public String getMarkup() {
+            return getMarkupRule().toString();
+        }
+
+        @Override
+        public void setMarkup(String markup) {
+            storeMarkup(ordinal, Markup.parse(markup));
+            updateUnitPrice(ordinal);
+        }
+
+        @Override
+        public Markup getMarkupRule() {
+            return loadMarkup(ordinal);
+        }
+
+        @Override
+        public String getProductPromotion() {
+            Promotion promotion = getPromotion();
+            return promotion == null ? null : promotion.toString();
+        }
+
+        @Override
+        public void setProductPromotion(String productPromotion) {
+            storePromotion(ordinal, PromotionRegistry.getDefault().parse(productPromotion));
+        }
+
+        @Override
+        public Promotion getPromotion() {
+            return loadPromotion(ordinal);
+        }
+
+        @Override
+        public void setPriceCache(PriceCache priceCache) {
+            throw new UnsupportedOperationException("Products of a columnar catalog are not cached");
+        }
+
+        @Override
+        public long checkTotalPriceCents(long amount) {
+            return ColumnarCatalog.this.checkTotalPriceCents(ordinal, amount);
+        }
+
+        @Override
+        long computeTotalPriceCents(long amount) {
+            return ColumnarCatalog.this.checkTotalPriceCents(ordinal, amount);
+        }
+
+        @Override
+        public double getUnitPriceWithMarkup() {
+            return Money.toEur(unitPriceCents[ordinal]);
+        }
+
+        @Override
+        public long getUnitPriceWithMarkupCents() {
+            return unitPriceCents[ordinal];
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * A client discount that was applied to the total of an order.
+ */
+public final class DiscountStep {
+
+    /**
+     * The client discounts, in the order in which they are applied.
+     */
+    public enum Kind {
+        BASIC,
+        ABOVE_10K,
+        ABOVE_30K
+    }
+
+    private final Kind kind;
+    private final long discountBasisPoints;
+    private final long totalAfterCents;
+
+    /**
+     * Create a new discount step.
+     * @param kind of client discount.
+     * @param discountBasisPoints percentage in hundredths of a percent between 0% and 100%.
+     * @param totalAfterCents the total of the order after the discount in cents.
+     */
+    public DiscountStep(Kind kind, long discountBasisPoints, long totalAfterCents) {
+        this.kind = kind;
+        this.discountBasisPoints = discountBasisPoints;
+        this.totalAfterCents = totalAfterCents;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getDiscount() {
+        return discountBasisPoints / 100.0;
+    }
+
+    public long getDiscountBasisPoints() {
+        return discountBasisPoints;
+    }
+
+    public double getTotalAfter() {
+        return Money.toEur(totalAfterCents);
+    }
+
+    public long getTotalAfterCents() {
+        return totalAfterCents;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Markup in the format "n EUR/unit", independent of the unit cost of the product.
+ */
+public final class FixedMarkup implements Markup {
+    private static final Pattern PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)?) EUR/unit");
+
+    private final long centsPerUnit;
+
+    /**
+     * Create a new fixed markup.
+     * @param eurPerUnit in EUR, must not be negative. Kept in whole cents.
+     */
+    public FixedMarkup(double eurPerUnit) {
+        this(checkEur(eurPerUnit));
+    }
+
+    private FixedMarkup(long centsPerUnit) {
+        if (centsPerUnit < 0) {
+            throw new IllegalArgumentException("Markup must be positive");
+        }
+        this.centsPerUnit = centsPerUnit;
+    }
+
+    private static long checkEur(double eurPerUnit) {
+        if (!(eurPerUnit >= 0)) {
+            throw new IllegalArgumentException("Markup must be positive");
+        }
+        return Money.toCents(eurPerUnit);
+    }
+
+    /**
+     * Create a new fixed markup from an amount in cents.
+     * @param centsPerUnit must not be negative.
+     * @return the markup.
+     */
+    public static FixedMarkup ofCents(long centsPerUnit) {
+        return new FixedMarkup(centsPerUnit);
+    }
+
+    /**
+     * Parse a markup in the format "n EUR/unit".
+     * @param markup string to be parsed.
+     * @return the parsed markup or null if the string is in a different format.
+     */
+    static FixedMarkup parse(String markup) {
+        Matcher matcher = PATTERN.matcher(markup);
+        if (matcher.matches()) {
+            return new FixedMarkup(Money.parseScaled(matcher.group(1), 2));
+        }
+        return null;
+    }
+
+    public double getEurPerUnit() {
+        return Money.toEur(centsPerUnit);
+    }
+
+    public long getCentsPerUnit() {
+        return centsPerUnit;
+    }
+
+    @Override
+    public long getUnitPriceCents(long unitCostCents) {
+        return getUnitPriceCents(unitCostCents, centsPerUnit);
+    }
+
+    /**
+     * Get the unit price of a product with a fixed markup.
+     * @param unitCostCents unit cost of the product in cents.
+     * @param centsPerUnit markup in cents.
+     * @return the unit price in cents.
+     */
+    static long getUnitPriceCents(long unitCostCents, long centsPerUnit) {
+        return unitCostCents + centsPerUnit;
+    }
+
+    @Override
+    public String toString() {
+        return Money.formatScaled(centsPerUnit, 2) + " EUR/unit";
+    }
+}
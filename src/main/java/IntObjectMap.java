@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open-addressing hash map from primitive {@code int} keys to non-null values. Keys are not
+ * boxed and there are no entry objects: keys and values live in two parallel arrays that
+ * are probed linearly. The map is not thread-safe.
+ * @param <V> type of the values.
+ */
+public class IntObjectMap<V> {
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Keys and values of the same length, so that a reader that loaded a table never
+     * indexes outside of it, even while the map is resized.
+     */
+    private static final class Table {
+        final int[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    private Table table = new Table(MIN_CAPACITY);
+    private int size;
+
+    /**
+     * Spread the bits of a key, so that consecutive ids do not form long probe sequences
+     * after the table is resized.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param key to be looked up.
+     * @return the value of the key or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        int i = hash(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = t.values[i];
+            if (value == null) {
+                return null;
+            }
+            if (t.keys[i] == key) {
+                return (V) value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Associate a value with a key, unless the key already has a value.
+     * @param key of the value.
+     * @param value to be stored, not null.
+     * @return the existing value of the key, or null if the value was stored.
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Values cannot be null");
+        }
+        if ((size + 1) * 4L > table.keys.length * 3L) {
+            resize(table.keys.length * 2);
+        }
+        Table t = table;
+        int mask = t.keys.length - 1;
+        int i = hash(key) & mask;
+        while (t.values[i] != null) {
+            if (t.keys[i] == key) {
+                return (V) t.values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        t.keys[i] = key;
+        t.values[i] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Remove a key and its value.
+     * @param key to be removed.
+     * @return the removed value or null if the key had no value.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        int i = hash(key) & mask;
+        while (t.values[i] != null) {
+            if (t.keys[i] == key) {
+                V removed = (V) t.values[i];
+                t.values[i] = null;
+                size--;
+                shiftBack(t, i);
+                return removed;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Move the entries following a removed slot back, so that every key can still be
+     * reached from its home slot without crossing an empty slot.
+     */
+    private static void shiftBack(Table t, int empty) {
+        int mask = t.keys.length - 1;
+        int i = (empty + 1) & mask;
+        while (t.values[i] != null) {
+            int home = hash(t.keys[i]) & mask;
+            // Move the entry if the empty slot lies between its home slot and its current slot.
+            if (((i - home) & mask) >= ((i - empty) & mask)) {
+                t.keys[empty] = t.keys[i];
+                t.values[empty] = t.values[i];
+                t.values[i] = null;
+                empty = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table t = new Table(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.keys.length; j++) {
+            if (old.values[j] != null) {
+                int i = hash(old.keys[j]) & mask;
+                while (t.values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                t.keys[i] = old.keys[j];
+                t.values[i] = old.values[j];
+            }
+        }
+        table = t;
+    }
+
+    /**
+     * @return the number of keys with a value.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new list with all values, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Object value : table.values) {
+            if (value != null) {
+                values.add((V) value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Estimate the memory used by the map itself, without the values, assuming compressed
+     * references: an object header of 12 bytes, 4 bytes per reference and 8-byte alignment.
+     * @return the estimated size in bytes.
+     */
+    public long estimateBytes() {
+        int capacity = table.keys.length;
+        return align(12 + 4 + 4) + align(12 + 4) + align(16 + 4L * capacity) * 2;
+    }
+
+    /**
+     * Estimate the memory used by a {@link java.util.HashMap} with boxed {@code Integer} keys
+     * of the same size, without the values, under the same assumptions as {@link #estimateBytes()}.
+     * @param size number of entries.
+     * @return the estimated size in bytes.
+     */
+    public static long estimateHashMapBytes(int size) {
+        long capacity = Math.max(16, Long.highestOneBit(Math.max(1, size * 4L / 3)) * 2);
+        long node = align(12 + 4 + 4 + 4 + 4);
+        long integer = align(12 + 4);
+        return align(12 + 4 * 6 + 4 * 2) + align(16 + 4 * capacity) + size * (node + integer);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
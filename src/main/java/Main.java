@@ -1,24 +1,132 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * Main class of the application.
+ * <p>
+ * Started with {@code -Dpricing.image=<snapshot>}, the products and clients are loaded from
+ * a {@link CatalogSnapshot} instead of being created and parsed on every run.
+ * <p>
+ * Usage: {@code Main clientId amount...} prices a single order, and
+ * {@code Main --batch [file|-] [workers]} prices one order per line of a file or of the
+ * standard input, see {@link BatchOrderProcessor}. With {@code -Dpricing.journal=<directory>}
+ * the batch is appended to an {@link OrderJournal} and counts towards the expenditure of the
+ * clients, which is first restored from the orders already in the journal.
  */
 public class Main {
-    public static void main(String[] args) {
+    /**
+     * @return the products of the beverage producer.
+     */
+    static ProductCollection createProducts() {
         ProductCollection productCollection = new ProductCollection();
         productCollection.add(new Product('A', 0.52, "80%"));
         productCollection.add(new Product('B', 0.38, "120%", "30% off"));
         productCollection.add(new Product('C', 0.41, "0.9 EUR/unit"));
         productCollection.add(new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free"));
+        return productCollection;
+    }
 
+    /**
+     * @return the clients of the beverage producer.
+     */
+    static ClientCollection createClients() {
         ClientCollection clientCollection = new ClientCollection();
         clientCollection.add(new Client(1, "5%", "0%", "2%"));
         clientCollection.add(new Client(2, "4%", "1%", "2%"));
         clientCollection.add(new Client(3, "3%", "1%", "3%"));
         clientCollection.add(new Client(4, "2%", "3%", "5%"));
         clientCollection.add(new Client(5, "0%", "5%", "7%"));
+        return clientCollection;
+    }
+
+    /**
+     * Restore the expenditure of the clients from a journal and open it to append orders to.
+     * @param directory of the journal.
+     * @param clients of which the expenditure is restored.
+     * @return the opened journal.
+     * @throws IOException if the journal cannot be read or opened.
+     */
+    static OrderJournal openJournal(Path directory, ClientCollection clients) throws IOException {
+        OrderJournal.Recovery recovery = OrderJournal.recover(directory);
+        int seeded = recovery.seed(clients);
+        System.err.println("Recovered " + recovery.getOrders() + " orders of "
+                + seeded + " clients from " + directory);
+        return OrderJournal.open(directory);
+    }
+
+    /**
+     * Price the orders of a file or of the standard input and write all receipts to the standard output.
+     * @param args "--batch", optionally followed by the file ("-" for the standard input) and the number of workers.
+     * @param products to be ordered.
+     * @param clients that place the orders.
+     * @throws IOException if the orders cannot be read.
+     */
+    private static void batch(String[] args, ProductCollection products, ClientCollection clients) throws IOException {
+        String source = args.length > 1 ? args[1] : "-";
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String journalDirectory = System.getProperty("pricing.journal");
+        OrderJournal journal = journalDirectory == null ? null : openJournal(Path.of(journalDirectory), clients);
+        BatchOrderProcessor processor = new BatchOrderProcessor(new OrderPricer(products, clients), workers, null, journal);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+                : Files.newBufferedReader(Path.of(source))) {
+            processor.process(in, source.equals("-") ? "stdin" : source, out);
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Price the orders of a file or of the standard input in worker processes that each own a partition
+     * of the clients, and write one CSV line per order to the standard output.
+     * @param args "--partitioned", followed by the number of partitions and optionally the file ("-" for the standard input).
+     * @throws IOException if the orders cannot be read or a worker cannot be reached.
+     */
+    private static void partitioned(String[] args) throws IOException {
+        int partitions = Integer.parseInt(args[1]);
+        String source = args.length > 2 ? args[2] : "-";
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        try (PartitionCoordinator coordinator = PartitionCoordinator.launch(partitions);
+             BufferedReader in = source.equals("-")
+                     ? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+                     : Files.newBufferedReader(Path.of(source))) {
+            coordinator.process(in, source.equals("-") ? "stdin" : source, out);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1 && args[0].equals("--partitioned")) {
+            partitioned(args);
+            return;
+        }
+        ProductCollection productCollection;
+        ClientCollection clientCollection;
+        String image = System.getProperty("pricing.image");
+        if (image != null) {
+            productCollection = new ProductCollection();
+            clientCollection = new ClientCollection();
+            CatalogSnapshot.load(Path.of(image), productCollection, clientCollection);
+        } else {
+            productCollection = createProducts();
+            clientCollection = createClients();
+        }
+
+        if (args.length > 0 && args[0].equals("--batch")) {
+            batch(args, productCollection, clientCollection);
+            return;
+        }
 
         Client client = clientCollection.get(Integer.parseInt(args[0]));
 
@@ -33,5 +141,8 @@ public class Main {
         }
         client.finishOrder();
         System.out.println("--------------------------------");
+        if (PricingMetrics.ENABLED) {
+            System.err.print(PricingMetrics.get().dump());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+/**
+ * A parsed product markup. Implementations are immutable and are created once,
+ * when the markup string of a product is set, so that pricing does not need to
+ * parse any strings.
+ */
+public interface Markup {
+
+    /**
+     * Get the unit price of a product with the markup applied, rounded to whole cents.
+     * @param unitCostCents unit cost of the product in cents.
+     * @return unit price in cents.
+     */
+    long getUnitPriceCents(long unitCostCents);
+
+    /**
+     * Parse a markup string.
+     * @param markup either in the format "n%" or "n EUR/unit".
+     * @return the corresponding markup.
+     */
+    static Markup parse(String markup) {
+        if (markup == null) {
+            throw new IllegalArgumentException("Unsupported markup format.");
+        }
+        Markup parsed = PercentageMarkup.parse(markup);
+        if (parsed == null) {
+            parsed = FixedMarkup.parse(markup);
+        }
+        if (parsed == null) {
+            throw new IllegalArgumentException("Unsupported markup format.");
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,171 @@
+import java.math.BigInteger;
+
+/**
+ * Fixed-point arithmetic on amounts of money. Amounts are kept as a {@code long} number
+ * of cents and percentages as a {@code long} number of basis points (hundredths of a percent),
+ * so prices are exact and the same regardless of the order in which they are added up.
+ */
+public final class Money {
+    /**
+     * Number of basis points in 100%.
+     */
+    public static final long FULL_PERCENTAGE = 100_00;
+
+    private Money() {
+    }
+
+    /**
+     * Convert an amount in EUR to cents, rounding half up.
+     * @param eur amount in EUR.
+     * @return the amount in cents.
+     */
+    public static long toCents(double eur) {
+        return Math.round(eur * 100.0);
+    }
+
+    /**
+     * Convert an amount in cents to EUR.
+     * @param cents amount in cents.
+     * @return the amount in EUR.
+     */
+    public static double toEur(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Convert a percentage to basis points, rounding half up.
+     * @param percentage e.g. 5 for 5%.
+     * @return the percentage in basis points.
+     */
+    public static long toBasisPoints(double percentage) {
+        return Math.round(percentage * 100.0);
+    }
+
+    /**
+     * Calculate (a * b) / d rounded half up, for non-negative a and b and positive d.
+     * Intermediate results may exceed the range of a {@code long}.
+     * @param a first factor.
+     * @param b second factor.
+     * @param d divisor.
+     * @return the rounded quotient.
+     */
+    public static long mulDivRound(long a, long b, long d) {
+        long product = a * b;
+        if (Math.multiplyHigh(a, b) == 0 && product >= 0 && product <= Long.MAX_VALUE - d / 2) {
+            return (product + d / 2) / d;
+        }
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                .add(BigInteger.valueOf(d / 2))
+                .divide(BigInteger.valueOf(d))
+                .longValueExact();
+    }
+
+    /**
+     * Get a percentage of an amount, rounded half up to whole cents.
+     * @param cents non-negative amount in cents.
+     * @param basisPoints non-negative percentage in basis points.
+     * @return the percentage of the amount in cents.
+     */
+    public static long percentOf(long cents, long basisPoints) {
+        return mulDivRound(cents, basisPoints, FULL_PERCENTAGE);
+    }
+
+    /**
+     * Get a percentage of the total of an amount of units, rounded half up to whole cents.
+     * Gives the same result as {@code percentOf(amount * unitCents, basisPoints)}, but the
+     * total itself may exceed the range of a {@code long} as long as the result does not.
+     * @param amount non-negative number of units.
+     * @param unitCents non-negative price of a unit in cents.
+     * @param basisPoints percentage in basis points between 0% and 100%.
+     * @return the percentage of the total in cents.
+     * @throws ArithmeticException if the result exceeds the range of a {@code long}.
+     */
+    public static long percentOf(long amount, long unitCents, long basisPoints) {
+        // Every full 100% of units contributes an exact number of cents, only the rest is rounded.
+        long wholeCents = Math.multiplyExact(Math.multiplyExact(amount / FULL_PERCENTAGE, unitCents), basisPoints);
+        long rest = Math.multiplyExact(amount % FULL_PERCENTAGE, unitCents);
+        return Math.addExact(wholeCents, percentOf(rest, basisPoints));
+    }
+
+    /**
+     * Parse a decimal number such as "12", "-5" or "0.415" to a fixed-point value
+     * with the given number of decimals. Extra decimals are rounded half up.
+     * @param s text containing the number.
+     * @param start index of the first character of the number.
+     * @param end index after the last character of the number.
+     * @param scale number of decimals of the result.
+     * @return the number multiplied by 10^scale.
+     */
+    public static long parseScaled(CharSequence s, int start, int end, int scale) {
+        boolean negative = start < end && s.charAt(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end) {
+            throw new NumberFormatException("Not a number: " + s.subSequence(start, end));
+        }
+        long value = 0;
+        int decimals = -1;
+        boolean roundUp = false;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals < scale) {
+                    value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (decimals == scale) {
+                    roundUp = c >= '5';
+                    decimals++;
+                }
+            } else {
+                throw new NumberFormatException("Not a number: " + s.subSequence(start, end));
+            }
+        }
+        for (int d = Math.max(decimals, 0); d < scale; d++) {
+            value = Math.multiplyExact(value, 10);
+        }
+        if (roundUp) {
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Format a fixed-point value as a decimal number without trailing zeros, e.g. 8000 with
+     * scale 2 as "80" and 90 with scale 2 as "0.9".
+     * @param value the number multiplied by 10^scale.
+     * @param scale number of decimals of the value.
+     * @return the decimal number.
+     */
+    public static String formatScaled(long value, int scale) {
+        StringBuilder sb = new StringBuilder(Long.toString(Math.abs(value)));
+        while (sb.length() <= scale) {
+            sb.insert(0, '0');
+        }
+        sb.insert(sb.length() - scale, '.');
+        int end = sb.length();
+        while (sb.charAt(end - 1) == '0') {
+            end--;
+        }
+        if (sb.charAt(end - 1) == '.') {
+            end--;
+        }
+        sb.setLength(end);
+        if (value < 0) {
+            sb.insert(0, '-');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parse a decimal number to a fixed-point value with the given number of decimals.
+     * @param s the number.
+     * @param scale number of decimals of the result.
+     * @return the number multiplied by 10^scale.
+     */
+    public static long parseScaled(CharSequence s, int scale) {
+        return parseScaled(s, 0, s.length(), scale);
+    }
+}
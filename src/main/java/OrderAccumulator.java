@@ -0,0 +1,74 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the lines of a single order of a client. Lines can be added from many
+ * threads at the same time: the total is kept in cents in a {@link LongAdder}, so no
+ * update is lost and the client itself is not changed.
+ */
+public class OrderAccumulator {
+    private final Client client;
+    private final LongAdder totalCents = new LongAdder();
+    private final LongAdder lineCount = new LongAdder();
+
+    /**
+     * Create a new, empty order.
+     * @param client that places the order.
+     */
+    public OrderAccumulator(Client client) {
+        this.client = client;
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    /**
+     * Add a specified amount of a specified product to the order.
+     * @param product to be added to the order.
+     * @param amount of the product to be added to the order.
+     * @return the priced line.
+     */
+    public ReceiptLine add(Product product, int amount) {
+        ReceiptLine line = new ReceiptLine(product, amount);
+        add(line);
+        return line;
+    }
+
+    /**
+     * Add an already priced line to the order.
+     * @param line to be added to the order.
+     */
+    public void add(ReceiptLine line) {
+        totalCents.add(line.getTotalCents());
+        lineCount.increment();
+    }
+
+    /**
+     * @return the number of lines added so far.
+     */
+    public long getLineCount() {
+        return lineCount.sum();
+    }
+
+    /**
+     * @return the sum of the lines added so far in EUR.
+     */
+    public double getTotalBeforeDiscounts() {
+        return Money.toEur(getTotalBeforeDiscountsCents());
+    }
+
+    /**
+     * @return the sum of the lines added so far in cents.
+     */
+    public long getTotalBeforeDiscountsCents() {
+        return totalCents.sum();
+    }
+
+    /**
+     * Apply the client's discounts to the lines added so far.
+     * @return the total price of the order after client discounts in EUR.
+     */
+    public double finish() {
+        return Money.toEur(client.applyDiscounts(getTotalBeforeDiscountsCents()));
+    }
+}
@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Prices an order file line by line and writes the results as it goes, so memory use
+ * does not depend on the size of the file. Every line is an order in the same shape as
+ * the arguments of {@link Main}: a client id followed by the amount of each product,
+ * separated by spaces or tabs. Empty lines and lines starting with '#' are skipped.
+ */
+public class OrderFileProcessor {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * How the priced orders are written.
+     */
+    public enum Output {
+        /**
+         * One CSV line per order: {@code clientId,totalBeforeDiscounts,total}.
+         */
+        SUMMARY,
+        /**
+         * The full receipt of every order, as text.
+         */
+        RECEIPTS
+    }
+
+    /**
+     * Outcome of processing an order file.
+     */
+    public static final class Result {
+        private final long orders;
+        private final long totalCents;
+        private final long elapsedNanos;
+
+        Result(long orders, long totalCents, long elapsedNanos) {
+            this.orders = orders;
+            this.totalCents = totalCents;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        /**
+         * @return the sum of the totals of all orders after client discounts in cents.
+         */
+        public long getTotalCents() {
+            return totalCents;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return the throughput in orders per second.
+         */
+        public double getOrdersPerSecond() {
+            return elapsedNanos == 0 ? 0 : orders * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final OrderPricer pricer;
+    private final Output output;
+
+    /**
+     * Create a new processor.
+     * @param pricer used to price the orders.
+     * @param output how the priced orders are written.
+     */
+    public OrderFileProcessor(OrderPricer pricer, Output output) {
+        this.pricer = pricer;
+        this.output = output;
+    }
+
+    /**
+     * Price all orders of a file.
+     * @param orders path of the order file.
+     * @param out to which the priced orders are written. It is flushed but not closed.
+     * @return the number of orders, their total and the throughput.
+     * @throws IOException if the file cannot be read or the output cannot be written.
+     */
+    public Result process(Path orders, Writer out) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        long totalCents = 0;
+        int[] amounts = new int[pricer.getProductCount()];
+        StringBuilder line = new StringBuilder(64);
+        ReceiptRenderer renderer = output == Output.RECEIPTS ? ReceiptRenderer.writer(out) : null;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(orders, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(buffer) < 0;
+                buffer.flip();
+                int lineStart = buffer.position();
+                for (int i = lineStart; i < buffer.limit(); i++) {
+                    boolean lastLine = eof && i == buffer.limit() - 1 && buffer.get(i) != '\n';
+                    if (buffer.get(i) == '\n' || lastLine) {
+                        lineNumber++;
+                        int lineEnd = lastLine ? i + 1 : i;
+                        long orderCents;
+                        try {
+                            orderCents = processLine(buffer, lineStart, lineEnd, amounts, line, renderer, out);
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException(orders + ":" + lineNumber + ": " + e.getMessage(), e);
+                        }
+                        if (orderCents >= 0) {
+                            count++;
+                            totalCents += orderCents;
+                        }
+                        lineStart = lineEnd == i ? i + 1 : lineEnd;
+                    }
+                }
+                buffer.position(lineStart);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    throw new IllegalArgumentException(orders + ":" + (lineNumber + 1) + ": Line is longer than " + BUFFER_SIZE + " bytes");
+                }
+            }
+        }
+        if (renderer != null) {
+            renderer.flush();
+        }
+        out.flush();
+        return new Result(count, totalCents, System.nanoTime() - start);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static boolean isOrder(ByteBuffer buffer, int start, int end) {
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        return start < end && buffer.get(start) != '#';
+    }
+
+    /**
+     * Price the order on a single line and write the result.
+     * @return the total of the order after client discounts in cents, or -1 if the line is skipped.
+     */
+    private long processLine(ByteBuffer buffer, int start, int end, int[] amounts, StringBuilder line,
+                             ReceiptRenderer renderer, Writer out) throws IOException {
+        if (!isOrder(buffer, start, end)) {
+            return -1;
+        }
+        int clientId = 0;
+        int fields = 0;
+        int i = start;
+        while (i < end) {
+            while (i < end && isWhitespace(buffer.get(i))) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            long value = 0;
+            while (i < end && !isWhitespace(buffer.get(i))) {
+                byte b = buffer.get(i++);
+                if (b < '0' || b > '9' || value > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Not a valid amount");
+                }
+                value = value * 10 + (b - '0');
+            }
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a valid amount");
+            }
+            if (fields == 0) {
+                clientId = (int) value;
+            } else if (fields - 1 < amounts.length) {
+                amounts[fields - 1] = (int) value;
+            } else {
+                throw new IllegalArgumentException("Order has more lines than there are products");
+            }
+            fields++;
+        }
+        int lineCount = fields - 1;
+        if (renderer != null) {
+            Receipt receipt = pricer.quote(clientId, amounts, lineCount);
+            renderer.render(receipt);
+            return receipt.getTotalCents();
+        }
+        PricedOrder priced = pricer.price(clientId, amounts, lineCount);
+        line.setLength(0);
+        line.append(clientId).append(',');
+        appendCents(line, priced.getTotalBeforeDiscountsCents()).append(',');
+        appendCents(line, priced.getTotalCents()).append('\n');
+        out.append(line);
+        return priced.getTotalCents();
+    }
+
+    /**
+     * Append an amount in cents as EUR with exactly 2 decimals.
+     */
+    static StringBuilder appendCents(StringBuilder sb, long cents) {
+        long remainder = cents % 100;
+        return sb.append(cents / 100).append('.').append(remainder < 10 ? "0" : "").append(remainder);
+    }
+}
@@ -0,0 +1,569 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only journal of priced orders, so that spending survives the process and
+ * orders can be replayed or audited.
+ * <p>
+ * The journal is a directory of segment files {@code journal-<n>.log}; a new segment is started
+ * when the current one would exceed its maximum size. A segment is a header (magic, version)
+ * followed by records, big-endian. A record is the length and the CRC-32C of its payload, and
+ * the payload: client id, totals before and after client discounts, the lines (SKU as its
+ * length and UTF-8 bytes, amount, unit price, total) and the client discounts (kind, basis
+ * points, total after). Segments of version 1, with a {@code char} product id instead of the
+ * SKU, can still be read; appending to such a journal starts a new segment.
+ * <p>
+ * Appends use group commit: the receipts of all threads that append while a sync is in
+ * progress are written together and made durable with a single {@link FileChannel#force}.
+ * A record that was only partly written when the process stopped is cut off when the journal
+ * is opened again.
+ * <p>
+ * A new segment is written under a temporary name with its header, made durable and then
+ * renamed, and the directory is synced, so a segment never appears without its header. A
+ * last segment that is nevertheless shorter than a header, e.g. written by an older version,
+ * is treated as empty.
+ */
+public class OrderJournal implements Closeable {
+    /**
+     * Maximum size of a segment file by default.
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private static final int MAGIC = 0x4f524a4e;
+    private static final int VERSION = 2;
+    private static final int VERSION_CHAR_IDS = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final String NEW_SEGMENT = "journal-new.tmp";
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 4 + 8 + 8 + 2 + 1;
+    /**
+     * Size of a line without its SKU bytes: SKU length or char id, amount, unit price, total.
+     */
+    private static final int LINE_BYTES = 2 + 4 + 8 + 8;
+    private static final int DISCOUNT_BYTES = 1 + 8 + 8;
+    private static final DiscountStep.Kind[] KINDS = DiscountStep.Kind.values();
+
+    /**
+     * Result of scanning a journal.
+     */
+    public static final class Recovery {
+        private final long orders;
+        private final Map<Integer, Long> clientTotalsCents;
+
+        Recovery(long orders, Map<Integer, Long> clientTotalsCents) {
+            this.orders = orders;
+            this.clientTotalsCents = Collections.unmodifiableMap(clientTotalsCents);
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        /**
+         * @return the sum of the totals after client discounts of the orders of each client in cents, by client id.
+         */
+        public Map<Integer, Long> getClientTotalsCents() {
+            return clientTotalsCents;
+        }
+
+        /**
+         * @param clientId id of the client.
+         * @return the sum of the totals after client discounts of the orders of the client in cents.
+         */
+        public long getClientTotalCents(int clientId) {
+            return clientTotalsCents.getOrDefault(clientId, 0L);
+        }
+
+        /**
+         * Add the recovered totals to the expenditure of the clients. Clients that are no
+         * longer in the collection are skipped.
+         * @param clients of which the expenditure is restored.
+         * @return the number of clients whose expenditure was restored.
+         */
+        public int seed(ClientCollection clients) {
+            int seeded = 0;
+            for (Map.Entry<Integer, Long> total : clientTotalsCents.entrySet()) {
+                Client client = clients.get(total.getKey());
+                if (client != null) {
+                    client.addToExpenditure(total.getValue());
+                    seeded++;
+                }
+            }
+            return seeded;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition committed = lock.newCondition();
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private long appended;
+    private long durable;
+    private boolean committing;
+    private boolean closed;
+    private IOException failure;
+    private long commits;
+    private FileChannel segment;
+    private volatile long segmentNumber;
+    private long segmentSize;
+
+    private OrderJournal(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Open a journal with segments of the default size, see {@link #open(Path, long)}.
+     * @param directory of the journal, created if it does not exist.
+     * @return the opened journal.
+     * @throws IOException if the journal cannot be opened.
+     */
+    public static OrderJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Open a journal to append orders to. A partly written record at the end of the last
+     * segment is cut off.
+     * @param directory of the journal, created if it does not exist.
+     * @param segmentBytes maximum size of a segment file. A single larger record gets a segment of its own.
+     * @return the opened journal.
+     * @throws IOException if the journal cannot be opened.
+     */
+    public static OrderJournal open(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes <= SEGMENT_HEADER_BYTES) {
+            throw new IllegalArgumentException("Segments need to be larger than " + SEGMENT_HEADER_BYTES + " bytes");
+        }
+        Files.createDirectories(directory);
+        OrderJournal journal = new OrderJournal(directory, segmentBytes);
+        List<Path> segments = listSegments(directory);
+        if (segments.isEmpty()) {
+            journal.startSegment(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            long validBytes = scan(last, true, null);
+            journal.segment = FileChannel.open(last, StandardOpenOption.WRITE);
+            journal.segment.truncate(validBytes);
+            if (validBytes < SEGMENT_HEADER_BYTES) {
+                // The segment was cut short by a crash right after it was created.
+                writeHeader(journal.segment);
+                journal.segment.force(false);
+                validBytes = SEGMENT_HEADER_BYTES;
+            }
+            journal.segment.position(validBytes);
+            journal.segmentNumber = segments.size() - 1;
+            journal.segmentSize = validBytes;
+            if (readVersion(last) != VERSION) {
+                // Records of the current version never go into a segment of an older one.
+                journal.startSegment(segments.size());
+            }
+        }
+        return journal;
+    }
+
+    private static int readVersion(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header.
+            }
+        }
+        return header.getInt(4);
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("journal-%020d.log", number));
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.log")) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        // The numbers are zero-padded, so the names sort in the order of the segments.
+        Collections.sort(segments);
+        for (int i = 0; i < segments.size(); i++) {
+            if (!segments.get(i).equals(segmentPath(directory, i))) {
+                throw new IllegalArgumentException(directory + " is missing journal segment " + i);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Start a new segment. It is created with its header under a temporary name and renamed
+     * once the header is durable, so a crash never leaves a segment without a header.
+     */
+    private void startSegment(long number) throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+            segment = null;
+        }
+        Path path = segmentPath(directory, number);
+        Path temporary = directory.resolve(NEW_SEGMENT);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(channel);
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+        segment = FileChannel.open(path, StandardOpenOption.WRITE);
+        segment.position(SEGMENT_HEADER_BYTES);
+        segmentNumber = number;
+        segmentSize = SEGMENT_HEADER_BYTES;
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    /**
+     * Make the entries of a directory durable, so a new segment is still there after a crash.
+     * Platforms that cannot sync a directory, such as Windows, are skipped.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (UnsupportedOperationException | AccessDeniedException e) {
+            // Directories cannot be opened or synced on this platform.
+        }
+    }
+
+    /**
+     * Append a priced order and wait until it is durable.
+     * @param receipt of the order.
+     * @throws IOException if the journal cannot be written.
+     * @throws IllegalArgumentException if a line has a SKU of more than 65535 UTF-8 bytes.
+     */
+    public void append(Receipt receipt) throws IOException {
+        appendAll(List.of(receipt));
+    }
+
+    /**
+     * Append priced orders and wait until they are durable.
+     * @param receipts of the orders.
+     * @throws IOException if the journal cannot be written.
+     * @throws IllegalArgumentException if a line has a SKU of more than 65535 UTF-8 bytes.
+     */
+    public void appendAll(List<Receipt> receipts) throws IOException {
+        List<ByteBuffer> records = new ArrayList<>(receipts.size());
+        for (Receipt receipt : receipts) {
+            records.add(encode(receipt));
+        }
+        long sequence;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            pending.addAll(records);
+            appended += records.size();
+            sequence = appended;
+        } finally {
+            lock.unlock();
+        }
+        commit(sequence);
+    }
+
+    /**
+     * Wait until all records up to a sequence number are durable. The first thread that finds
+     * no commit in progress writes everything that is pending, the others wait for it.
+     * @param sequence number of the last record that needs to be durable.
+     */
+    private void commit(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failure != null) {
+                    throw new IOException("Journal cannot be written", failure);
+                }
+                if (committing) {
+                    committed.awaitUninterruptibly();
+                    continue;
+                }
+                committing = true;
+                List<ByteBuffer> batch = pending;
+                pending = new ArrayList<>();
+                long batchEnd = appended;
+                lock.unlock();
+                IOException error = null;
+                try {
+                    write(batch);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+                committing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durable = batchEnd;
+                    commits++;
+                }
+                committed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write a batch of records and make them durable. Only called by the committing thread.
+     */
+    private void write(List<ByteBuffer> batch) throws IOException {
+        int start = 0;
+        while (start < batch.size()) {
+            long size = 0;
+            int end = start;
+            while (end < batch.size() && (end == start || segmentSize + size + batch.get(end).remaining() <= segmentBytes)) {
+                size += batch.get(end).remaining();
+                end++;
+            }
+            if (segmentSize > SEGMENT_HEADER_BYTES && segmentSize + size > segmentBytes) {
+                startSegment(segmentNumber + 1);
+                continue;
+            }
+            ByteBuffer[] buffers = batch.subList(start, end).toArray(new ByteBuffer[0]);
+            long written = 0;
+            while (written < size) {
+                written += segment.write(buffers);
+            }
+            segmentSize += size;
+            start = end;
+        }
+        segment.force(false);
+    }
+
+    private static ByteBuffer encode(Receipt receipt) {
+        List<ReceiptLine> lines = receipt.getLines();
+        List<DiscountStep> discounts = receipt.getDiscounts();
+        if (lines.size() > 0xffff) {
+            throw new IllegalArgumentException("Order has too many lines to be journaled");
+        }
+        byte[][] skus = new byte[lines.size()][];
+        int payloadBytes = FIXED_PAYLOAD_BYTES + lines.size() * LINE_BYTES + discounts.size() * DISCOUNT_BYTES;
+        for (int i = 0; i < skus.length; i++) {
+            skus[i] = lines.get(i).getSku().getBytes(StandardCharsets.UTF_8);
+            if (skus[i].length > 0xffff) {
+                throw new IllegalArgumentException("SKU is too long to be journaled: " + lines.get(i).getSku());
+            }
+            payloadBytes += skus[i].length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadBytes);
+        record.putInt(payloadBytes).putInt(0);
+        record.putInt(receipt.getClientId());
+        record.putLong(receipt.getTotalBeforeDiscountsCents());
+        record.putLong(receipt.getTotalCents());
+        record.putShort((short) lines.size());
+        for (int i = 0; i < skus.length; i++) {
+            ReceiptLine line = lines.get(i);
+            record.putShort((short) skus[i].length);
+            record.put(skus[i]);
+            record.putInt(line.getAmount());
+            record.putLong(line.getUnitPriceCents());
+            record.putLong(line.getTotalCents());
+        }
+        record.put((byte) discounts.size());
+        for (DiscountStep discount : discounts) {
+            record.put((byte) discount.getKind().ordinal());
+            record.putLong(discount.getDiscountBasisPoints());
+            record.putLong(discount.getTotalAfterCents());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER_BYTES, payloadBytes);
+        record.putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private static Receipt decode(ByteBuffer payload, int version) {
+        int clientId = payload.getInt();
+        long totalBeforeDiscountsCents = payload.getLong();
+        long totalCents = payload.getLong();
+        int lineCount = payload.getShort() & 0xffff;
+        List<ReceiptLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            if (version == VERSION_CHAR_IDS) {
+                lines.add(new ReceiptLine(payload.getChar(), payload.getInt(), payload.getLong(), payload.getLong()));
+            } else {
+                byte[] sku = new byte[payload.getShort() & 0xffff];
+                payload.get(sku);
+                lines.add(new ReceiptLine(new String(sku, StandardCharsets.UTF_8), payload.getInt(), payload.getLong(), payload.getLong()));
+            }
+        }
+        int discountCount = payload.get();
+        List<DiscountStep> discounts = new ArrayList<>(discountCount);
+        for (int i = 0; i < discountCount; i++) {
+            discounts.add(new DiscountStep(KINDS[payload.get()], payload.getLong(), payload.getLong()));
+        }
+        return new Receipt(clientId, lines, totalBeforeDiscountsCents, discounts, totalCents);
+    }
+
+    /**
+     * Scan the records of a segment.
+     * @param path of the segment.
+     * @param last whether it is the last segment, in which a partly written record ends the scan
+     *             and which is empty if it is shorter than a header.
+     * @param consumer receiving the payload of every record, positioned at its start, and the
+     *                 version of the segment, or null.
+     * @return the number of bytes of the segment up to the end of the last complete record, 0 for
+     * a last segment without a complete header.
+     */
+    private static long scan(Path path, boolean last, ObjIntConsumer<ByteBuffer> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (last && buffer.remaining() < SEGMENT_HEADER_BYTES) {
+            return 0;
+        }
+        if (buffer.remaining() < SEGMENT_HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException(path + " is not a journal segment");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION && version != VERSION_CHAR_IDS) {
+            throw new IllegalArgumentException(path + " has an unsupported journal version");
+        }
+        CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            boolean valid = length >= FIXED_PAYLOAD_BYTES && length <= buffer.remaining();
+            if (valid) {
+                crc.reset();
+                crc.update(buffer.slice(buffer.position(), length));
+                valid = (int) crc.getValue() == checksum;
+            }
+            if (!valid) {
+                if (last) {
+                    return start;
+                }
+                throw new IllegalArgumentException(path + ": corrupt record at byte " + start);
+            }
+            if (consumer != null) {
+                consumer.accept(buffer.slice(buffer.position(), length), version);
+            }
+            buffer.position(buffer.position() + length);
+        }
+        if (buffer.hasRemaining() && !last) {
+            throw new IllegalArgumentException(path + ": corrupt record at byte " + buffer.position());
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Read all complete orders of a journal, in the order in which they were appended.
+     * @param directory of the journal.
+     * @param consumer receiving every order.
+     * @return the number of orders.
+     * @throws IOException if the journal cannot be read.
+     */
+    public static long replay(Path directory, Consumer<Receipt> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> segments = listSegments(directory);
+        long[] orders = new long[1];
+        for (int i = 0; i < segments.size(); i++) {
+            scan(segments.get(i), i == segments.size() - 1, (payload, version) -> {
+                consumer.accept(decode(payload, version));
+                orders[0]++;
+            });
+        }
+        return orders[0];
+    }
+
+    /**
+     * Rebuild the totals of every client from a journal. Only the fixed part of each record
+     * is read, the lines and discounts are skipped.
+     * @param directory of the journal.
+     * @return the number of orders and the totals per client.
+     * @throws IOException if the journal cannot be read.
+     */
+    public static Recovery recover(Path directory) throws IOException {
+        Map<Integer, Long> totals = new HashMap<>();
+        long[] orders = new long[1];
+        if (Files.isDirectory(directory)) {
+            List<Path> segments = listSegments(directory);
+            for (int i = 0; i < segments.size(); i++) {
+                scan(segments.get(i), i == segments.size() - 1, (payload, version) -> {
+                    totals.merge(payload.getInt(0), payload.getLong(12), Long::sum);
+                    orders[0]++;
+                });
+            }
+        }
+        return new Recovery(orders[0], totals);
+    }
+
+    /**
+     * @return the number of syncs so far, each of which made one or more appended orders durable.
+     */
+    public long getCommits() {
+        lock.lock();
+        try {
+            return commits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of segment files of the journal.
+     */
+    public long getSegmentCount() {
+        return segmentNumber + 1;
+    }
+
+    /**
+     * Close the journal after all appended orders are durable.
+     * @throws IOException if the journal cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        long sequence;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            sequence = appended;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            commit(sequence);
+        } finally {
+            segment.close();
+        }
+    }
+}
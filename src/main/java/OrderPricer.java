@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Prices many orders at once against a product and a client collection.
+ * The products are resolved once, when the pricer is created, and nothing is printed,
+ * so orders can be priced in parallel. The totals are the same as the ones
+ * of {@link Client#addToOrder(Product, int)} followed by {@link Client#finishOrder()}.
+ */
+public class OrderPricer {
+    private final Product[] products;
+    private final ClientCollection clients;
+
+    /**
+     * Create a new pricer. Changes to the set of products in the collection after this
+     * point are not seen by the pricer.
+     * @param products to be ordered, by position of the product id in the ordered ids.
+     * @param clients that place the orders.
+     */
+    public OrderPricer(ProductCollection products, ClientCollection clients) {
+        this.products = new Product[products.size()];
+        for (int i = 0; i < this.products.length; i++) {
+            this.products[i] = products.get(i);
+        }
+        this.clients = clients;
+    }
+
+    /**
+     * Create a new pricer that prices every order against the same catalog version.
+     * @param version of the catalog with the products to be ordered.
+     * @param clients that place the orders.
+     */
+    public OrderPricer(CatalogVersion version, ClientCollection clients) {
+        this.products = version.getOrderedProducts();
+        this.clients = clients;
+    }
+
+    /**
+     * Check that an order can be priced and look up the client that placed it.
+     * @param clientId id of the client that places the order.
+     * @param lineCount number of products the order has an amount for.
+     * @return the client that placed the order.
+     */
+    private Client getClient(int clientId, int lineCount) {
+        Client client = clients.get(clientId);
+        if (client == null) {
+            throw new IllegalArgumentException("There is no client with ID: " + clientId);
+        }
+        if (lineCount > products.length) {
+            throw new IllegalArgumentException("Order has more lines than there are products");
+        }
+        return client;
+    }
+
+    /**
+     * Add a priced order to the expenditure of the client that placed it.
+     * @param receipt of the order.
+     */
+    void addToExpenditure(Receipt receipt) {
+        clients.get(receipt.getClientId()).addToExpenditure(receipt.getTotalCents());
+    }
+
+    /**
+     * Price a single order.
+     * @param order to be priced.
+     * @return the priced order.
+     */
+    public PricedOrder price(OrderRequest order) {
+        return price(order.getClientId(), order.getAmounts(), order.getLineCount());
+    }
+
+    /**
+     * Price a single order given as an array of amounts, which may be reused by the caller.
+     * @param clientId id of the client that places the order.
+     * @param amounts of each product, indexed by the position of the product id in the ordered ids.
+     * @param lineCount number of amounts that belong to the order.
+     * @return the priced order.
+     */
+    public PricedOrder price(int clientId, int[] amounts, int lineCount) {
+        Client client = getClient(clientId, lineCount);
+        long total = 0;
+        for (int i = 0; i < lineCount; i++) {
+            int amount = amounts[i];
+            if (amount != 0) {
+                total += products[i].checkTotalPriceCents(amount);
+            }
+        }
+        return new PricedOrder(client.getId(), total, client.applyDiscounts(total));
+    }
+
+    /**
+     * Price a single order and keep the details of every line.
+     * @param order to be priced.
+     * @return the receipt of the order.
+     */
+    public Receipt quote(OrderRequest order) {
+        return quote(order.getClientId(), order.getAmounts(), order.getLineCount());
+    }
+
+    /**
+     * Price a single order given as an array of amounts and keep the details of every line.
+     * @param clientId id of the client that places the order.
+     * @param amounts of each product, indexed by the position of the product id in the ordered ids.
+     * @param lineCount number of amounts that belong to the order.
+     * @return the receipt of the order.
+     */
+    public Receipt quote(int clientId, int[] amounts, int lineCount) {
+        Client client = getClient(clientId, lineCount);
+        List<ReceiptLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            int amount = amounts[i];
+            if (amount != 0) {
+                lines.add(new ReceiptLine(products[i], amount));
+            }
+        }
+        return client.checkout(lines);
+    }
+
+    /**
+     * @return the number of products that orders can have an amount for.
+     */
+    public int getProductCount() {
+        return products.length;
+    }
+
+    /**
+     * Price many orders, in parallel.
+     * @param orders to be priced.
+     * @return the priced orders, in the same order as the requests.
+     */
+    public PricedOrder[] priceAll(OrderRequest[] orders) {
+        PricedOrder[] priced = new PricedOrder[orders.length];
+        IntStream.range(0, orders.length).parallel().forEach(i -> priced[i] = price(orders[i]));
+        return priced;
+    }
+
+    /**
+     * Price a stream of orders. The stream decides whether the orders are priced in parallel.
+     * @param orders to be priced.
+     * @return the priced orders, in encounter order of the stream.
+     */
+    public List<PricedOrder> priceAll(Stream<OrderRequest> orders) {
+        return orders.map(this::price).toList();
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * An order of a client that has not been priced yet. Amounts are given per product,
+ * in the order of the product ids, as on the command line of {@link Main}.
+ */
+public final class OrderRequest {
+    private final int clientId;
+    private final int[] amounts;
+
+    /**
+     * Create a new order request.
+     * @param clientId id of the client that places the order.
+     * @param amounts of each product, indexed by the position of the product id in the ordered ids.
+     */
+    public OrderRequest(int clientId, int... amounts) {
+        this.clientId = clientId;
+        this.amounts = amounts.clone();
+    }
+
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * @return the number of products the order has an amount for.
+     */
+    public int getLineCount() {
+        return amounts.length;
+    }
+
+    /**
+     * @return the amounts of the order, not copied.
+     */
+    int[] getAmounts() {
+        return amounts;
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @return the amount ordered of that product.
+     */
+    public int getAmount(int index) {
+        return amounts[index];
+    }
+}
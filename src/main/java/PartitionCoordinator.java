@@ -0,0 +1,409 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes orders to {@link PartitionWorker}s, each of which owns the clients of one partition,
+ * over one local socket per partition. Clients are hash-partitioned by id, so all orders of a
+ * client go to the same worker, in the order in which they were routed.
+ * <p>
+ * The workers are either separate processes started by {@link #launch(int, String...)},
+ * so the clients are spread over several JVMs, or any workers that already listen.
+ */
+public class PartitionCoordinator implements Closeable {
+    /**
+     * Number of orders that are sent to a worker before its answers are read.
+     * The orders and answers of a window fit in the socket buffers, so neither side blocks.
+     */
+    static final int WINDOW = 256;
+
+    /**
+     * Number of lines of an order file that are priced at once.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private final Connection[] connections;
+    private final List<Process> processes;
+    private final ExecutorService pool;
+
+    /**
+     * Connection to the worker of a partition. Only one thread talks to a worker at a time.
+     */
+    private static final class Connection {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder(64);
+
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 1 << 16);
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), 1 << 16);
+        }
+
+        void send(int clientId, int[] amounts, int lineCount) throws IOException {
+            line.setLength(0);
+            line.append(clientId);
+            for (int i = 0; i < lineCount; i++) {
+                line.append(' ').append(amounts[i]);
+            }
+            line.append('\n');
+            out.append(line);
+        }
+
+        /**
+         * Read the answer to an order.
+         * @return the priced order, or null if the worker rejected it and the reason was stored in errors.
+         */
+        PricedOrder receive(int clientId, String[] errors, int index) throws IOException {
+            String answer = in.readLine();
+            if (answer == null) {
+                throw new IOException("Partition worker at " + socket.getRemoteSocketAddress() + " closed the connection");
+            }
+            if (answer.startsWith("!")) {
+                errors[index] = answer.substring(1);
+                return null;
+            }
+            int space = answer.indexOf(' ');
+            return new PricedOrder(clientId, Long.parseLong(answer, 0, space, 10),
+                    Long.parseLong(answer, space + 1, answer.length(), 10));
+        }
+    }
+
+    /**
+     * Create a coordinator for workers that already listen.
+     * @param workers addresses of the workers, by partition.
+     * @throws IOException if a worker cannot be connected.
+     */
+    public PartitionCoordinator(List<InetSocketAddress> workers) throws IOException {
+        this(workers, List.of());
+    }
+
+    private PartitionCoordinator(List<InetSocketAddress> workers, List<Process> processes) throws IOException {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one partition");
+        }
+        connections = new Connection[workers.size()];
+        this.processes = processes;
+        pool = Executors.newFixedThreadPool(workers.size());
+        try {
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new Connection(workers.get(i));
+            }
+        } catch (IOException e) {
+            release(connections, pool, processes);
+            throw e;
+        }
+    }
+
+    /**
+     * Start a worker process per partition on this machine, with the same class path and
+     * catalog snapshot ({@code -Dpricing.image}) as this JVM, and connect to them.
+     * @param partitions number of partitions, at least 1.
+     * @param catalogFiles products.csv and clients.csv, or nothing for the sample catalog or the snapshot.
+     * @return the coordinator, which stops the workers when it is closed.
+     * @throws IOException if a worker cannot be started or connected.
+     */
+    public static PartitionCoordinator launch(int partitions, String... catalogFiles) throws IOException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Need at least one partition");
+        }
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < partitions; i++) {
+                List<String> command = new ArrayList<>();
+                command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+                if (System.getProperty("pricing.image") != null) {
+                    command.add("-Dpricing.image=" + System.getProperty("pricing.image"));
+                }
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add("PartitionWorker");
+                command.add(String.valueOf(i));
+                command.add(String.valueOf(partitions));
+                command.addAll(Arrays.asList(catalogFiles));
+                processes.add(new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+            }
+            // The workers load their catalogs in parallel; wait for each of them to listen.
+            for (Process process : processes) {
+                BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+                String line = out.readLine();
+                if (line == null || !line.startsWith("LISTENING ")) {
+                    throw new IOException("Partition worker did not start: " + line);
+                }
+                workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(line.substring(10))));
+            }
+            return new PartitionCoordinator(workers, processes);
+        } catch (IOException | RuntimeException e) {
+            stop(processes);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the partition of a client. Consecutive ids are spread over all partitions.
+     * @param clientId id of the client.
+     * @param partitions number of partitions.
+     * @return the partition of the client, from 0.
+     */
+    public static int partitionOf(int clientId, int partitions) {
+        int h = clientId * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), partitions);
+    }
+
+    /**
+     * @return the number of partitions.
+     */
+    public int getPartitionCount() {
+        return connections.length;
+    }
+
+    /**
+     * Price a single order in the worker of its client.
+     * @param clientId id of the client that places the order.
+     * @param amounts of each product, indexed by the position of the product id in the ordered ids.
+     * @param lineCount number of amounts that belong to the order.
+     * @return the priced order, with the same totals as {@link OrderPricer#price(int, int[], int)}.
+     * @throws IOException if the worker cannot be reached.
+     */
+    public PricedOrder price(int clientId, int[] amounts, int lineCount) throws IOException {
+        Connection connection = connections[partitionOf(clientId, connections.length)];
+        String[] errors = new String[1];
+        PricedOrder priced;
+        synchronized (connection) {
+            connection.send(clientId, amounts, lineCount);
+            connection.out.flush();
+            priced = connection.receive(clientId, errors, 0);
+        }
+        if (priced == null) {
+            throw new IllegalArgumentException(errors[0]);
+        }
+        return priced;
+    }
+
+    /**
+     * Price many orders. The orders of every partition are pipelined to its worker, and all
+     * workers price their orders at the same time.
+     * @param orders to be priced.
+     * @return the priced orders, in the same order as the requests.
+     * @throws IOException if a worker cannot be reached.
+     */
+    public PricedOrder[] priceAll(OrderRequest[] orders) throws IOException {
+        String[] errors = new String[orders.length];
+        PricedOrder[] priced = priceAll(orders, orders.length, errors);
+        for (int i = 0; i < orders.length; i++) {
+            if (errors[i] != null) {
+                throw new IllegalArgumentException("Order " + i + ": " + errors[i]);
+            }
+        }
+        return priced;
+    }
+
+    /**
+     * Price the first orders of an array, recording rejected orders instead of failing.
+     * @param orders to be priced.
+     * @param count number of orders to price.
+     * @param errors in which the reason is stored for every rejected order.
+     * @return the priced orders, null where an order was rejected.
+     */
+    private PricedOrder[] priceAll(OrderRequest[] orders, int count, String[] errors) throws IOException {
+        int[][] byPartition = new int[connections.length][];
+        int[] sizes = new int[connections.length];
+        for (int i = 0; i < count; i++) {
+            sizes[partitionOf(orders[i].getClientId(), connections.length)]++;
+        }
+        for (int p = 0; p < connections.length; p++) {
+            byPartition[p] = new int[sizes[p]];
+            sizes[p] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int p = partitionOf(orders[i].getClientId(), connections.length);
+            byPartition[p][sizes[p]++] = i;
+        }
+
+        PricedOrder[] priced = new PricedOrder[count];
+        List<Future<?>> pending = new ArrayList<>(connections.length);
+        for (int p = 0; p < connections.length; p++) {
+            if (byPartition[p].length > 0) {
+                Connection connection = connections[p];
+                int[] indexes = byPartition[p];
+                pending.add(pool.submit(() -> {
+                    exchange(connection, orders, indexes, priced, errors);
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : pending) {
+            await(future);
+        }
+        return priced;
+    }
+
+    private static void exchange(Connection connection, OrderRequest[] orders, int[] indexes,
+                                 PricedOrder[] priced, String[] errors) throws IOException {
+        synchronized (connection) {
+            for (int start = 0; start < indexes.length; start += WINDOW) {
+                int end = Math.min(indexes.length, start + WINDOW);
+                for (int i = start; i < end; i++) {
+                    OrderRequest order = orders[indexes[i]];
+                    connection.send(order.getClientId(), order.getAmounts(), order.getLineCount());
+                }
+                connection.out.flush();
+                for (int i = start; i < end; i++) {
+                    priced[indexes[i]] = connection.receive(orders[indexes[i]].getClientId(), errors, indexes[i]);
+                }
+            }
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while pricing orders");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Price all orders that can be read and write one CSV line per order:
+     * {@code clientId,totalBeforeDiscounts,total}, as {@link OrderFileProcessor.Output#SUMMARY} does.
+     * Empty lines and lines starting with '#' are skipped.
+     * @param in from which the orders are read, one per line.
+     * @param source name of the input, used in error messages.
+     * @param out to which the priced orders are written in the order of the input. It is flushed but not closed.
+     * @return the number of orders, their total and the throughput.
+     * @throws IOException if the input cannot be read, the output cannot be written or a worker cannot be reached.
+     */
+    public OrderFileProcessor.Result process(BufferedReader in, String source, Writer out) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        long totalCents = 0;
+        OrderRequest[] orders = new OrderRequest[CHUNK_SIZE];
+        long[] lineNumbers = new long[CHUNK_SIZE];
+        String[] errors = new String[CHUNK_SIZE];
+        StringBuilder line = new StringBuilder(64);
+        long lineNumber = 0;
+        boolean eof = false;
+        while (!eof) {
+            int size = 0;
+            while (size < CHUNK_SIZE) {
+                String text = in.readLine();
+                if (text == null) {
+                    eof = true;
+                    break;
+                }
+                lineNumber++;
+                text = text.strip();
+                if (text.isEmpty() || text.charAt(0) == '#') {
+                    continue;
+                }
+                try {
+                    String[] fields = text.split("\\s+");
+                    int[] amounts = new int[fields.length - 1];
+                    for (int j = 1; j < fields.length; j++) {
+                        amounts[j - 1] = Integer.parseInt(fields[j]);
+                    }
+                    orders[size] = new OrderRequest(Integer.parseInt(fields[0]), amounts);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+                lineNumbers[size++] = lineNumber;
+            }
+
+            Arrays.fill(errors, null);
+            PricedOrder[] priced = priceAll(orders, size, errors);
+            for (int i = 0; i < size; i++) {
+                if (errors[i] != null) {
+                    throw new IllegalArgumentException(source + ":" + lineNumbers[i] + ": " + errors[i]);
+                }
+                line.setLength(0);
+                line.append(priced[i].getClientId()).append(',');
+                OrderFileProcessor.appendCents(line, priced[i].getTotalBeforeDiscountsCents()).append(',');
+                OrderFileProcessor.appendCents(line, priced[i].getTotalCents()).append('\n');
+                out.append(line);
+                count++;
+                totalCents += priced[i].getTotalCents();
+            }
+        }
+        out.flush();
+        return new OrderFileProcessor.Result(count, totalCents, System.nanoTime() - start);
+    }
+
+    /**
+     * Close the connections and stop the worker processes that this coordinator started.
+     */
+    @Override
+    public void close() {
+        release(connections, pool, processes);
+    }
+
+    /**
+     * Close the connections that are open, stop the pool and stop the worker processes.
+     * Static, so the constructor can clean up without calling an overridable method.
+     */
+    private static void release(Connection[] connections, ExecutorService pool, List<Process> processes) {
+        for (Connection connection : connections) {
+            if (connection != null) {
+                try {
+                    connection.socket.close();
+                } catch (IOException e) {
+                    // Nothing left to do with the connection.
+                }
+            }
+        }
+        pool.shutdownNow();
+        stop(processes);
+    }
+
+    /**
+     * Stop worker processes by closing their standard input, and kill the ones that do not exit in time.
+     */
+    private static void stop(List<Process> processes) {
+        for (Process process : processes) {
+            try {
+                process.getOutputStream().close();
+            } catch (IOException e) {
+                // The process is gone already.
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
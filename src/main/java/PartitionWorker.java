@@ -0,0 +1,195 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns one partition of the clients, see {@link PartitionCoordinator#partitionOf(int, int)},
+ * and prices their orders with an {@link OrderPricer}, so every order gets the same totals as
+ * in {@link OrderFileProcessor}. The total of every order is then added to the expenditure of
+ * its client, which lives in exactly one process.
+ * <p>
+ * Orders are read from local socket connections, one per line in the same shape as the
+ * arguments of {@link Main}: a client id followed by the amount of each product. Every order
+ * is answered with a line {@code totalBeforeDiscountsCents totalCents}, or with '!' followed
+ * by the reason the order was rejected. Orders on the same connection are answered in order.
+ */
+public class PartitionWorker implements Closeable {
+    private final ClientCollection clients = new ClientCollection();
+    private final OrderPricer pricer;
+    private final int productCount;
+    private final int partition;
+    private final ServerSocket server;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+
+    /**
+     * Create a worker that listens on a free port of the loopback address. It does not accept
+     * connections until it is started.
+     * @param products to be ordered, by position of the product id in the ordered ids.
+     * @param clients of which the worker takes the ones of its partition.
+     * @param partition number of the partition of this worker, from 0.
+     * @param partitions number of partitions.
+     * @throws IOException if no port can be bound.
+     */
+    public PartitionWorker(ProductCollection products, ClientCollection clients, int partition, int partitions) throws IOException {
+        if (partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("Partition must be between 0 and " + (partitions - 1));
+        }
+        for (Client client : clients.getClients()) {
+            if (PartitionCoordinator.partitionOf(client.getId(), partitions) == partition) {
+                client.setRenderer(ReceiptRenderer.NONE);
+                this.clients.add(client);
+            }
+        }
+        pricer = new OrderPricer(products, this.clients);
+        productCount = products.size();
+        this.partition = partition;
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    /**
+     * @return the port on which the worker listens.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return the number of clients that this worker owns.
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Accept connections in the background until the worker is closed.
+     */
+    public void start() {
+        connections.execute(() -> {
+            try {
+                while (true) {
+                    Socket socket = server.accept();
+                    connections.execute(() -> serve(socket));
+                }
+            } catch (IOException e) {
+                // The worker was closed.
+            }
+        });
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 1 << 16);
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), 1 << 16)) {
+            socket.setTcpNoDelay(true);
+            int[] amounts = new int[productCount];
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(handle(line, amounts));
+                out.write('\n');
+                // Answer a whole batch of pipelined orders at once.
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // The coordinator went away.
+        } catch (IOException e) {
+            System.err.println("Partition " + partition + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Price a single order.
+     * @param line with the client id and the amounts of the order.
+     * @param amounts buffer for the amounts, at least as long as the number of products.
+     * @return the totals of the order or the reason it was rejected, without line separator.
+     */
+    String handle(String line, int[] amounts) {
+        try {
+            String[] fields = line.strip().split(" ");
+            int clientId = Integer.parseInt(fields[0]);
+            int lineCount = fields.length - 1;
+            if (lineCount > productCount) {
+                throw new IllegalArgumentException("Order has more lines than there are products");
+            }
+            for (int i = 0; i < lineCount; i++) {
+                amounts[i] = Integer.parseInt(fields[i + 1]);
+                if (amounts[i] < 0) {
+                    throw new IllegalArgumentException("Cannot buy a negative amount.");
+                }
+            }
+            Client client = clients.get(clientId);
+            if (client == null) {
+                throw new IllegalArgumentException("There is no client with ID: " + clientId + " in partition " + partition);
+            }
+            // Every order is priced on its own, the expenditure only records it.
+            PricedOrder priced = pricer.price(clientId, amounts, lineCount);
+            client.addToExpenditure(priced.getTotalCents());
+            return priced.getTotalBeforeDiscountsCents() + " " + priced.getTotalCents();
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return "!" + e.getMessage();
+        }
+    }
+
+    /**
+     * Stop accepting connections and close the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Run a worker for a coordinator, with the sample catalog of {@link Main}, the snapshot of
+     * {@code -Dpricing.image=<snapshot>} or a catalog in CSV files. The worker prints the line
+     * {@code LISTENING <port>} once it accepts connections and exits when its standard input is closed.
+     * Usage: {@code PartitionWorker <partition> <partitions> [products.csv clients.csv]}.
+     * @param args partition of the worker, number of partitions and optionally the CSV files.
+     * @throws IOException if the catalog cannot be read or no port can be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        ProductCollection products;
+        ClientCollection clients;
+        String image = System.getProperty("pricing.image");
+        if (args.length >= 4) {
+            products = new ProductCollection();
+            clients = new ClientCollection();
+            CatalogLoader.loadProducts(Path.of(args[2]), products);
+            CatalogLoader.loadClients(Path.of(args[3]), clients);
+        } else if (image != null) {
+            products = new ProductCollection();
+            clients = new ClientCollection();
+            CatalogSnapshot.load(Path.of(image), products, clients);
+        } else {
+            products = Main.createProducts();
+            clients = Main.createClients();
+        }
+
+        PartitionWorker worker = new PartitionWorker(products, clients, Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        worker.start();
+        System.out.println("LISTENING " + worker.getPort());
+        System.out.flush();
+        while (System.in.read() >= 0) {
+            // Wait until the coordinator closes the pipe or exits.
+        }
+        worker.close();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Promotion in the format "n% off".
+ */
+public final class PercentOffPromotion implements Promotion {
+    private static final Pattern PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)?)% off");
+
+    private final long basisPoints;
+
+    /**
+     * Create a new percent off promotion.
+     * @param percentage discount in percent, e.g. 30 for "30% off", must be between 0 and 100. Kept in basis points.
+     */
+    public PercentOffPromotion(double percentage) {
+        this(checkPercentage(percentage));
+    }
+
+    private PercentOffPromotion(long basisPoints) {
+        if (!(basisPoints >= 0 && basisPoints <= Money.FULL_PERCENTAGE)) {
+            throw new IllegalArgumentException("Promotion discount needs to be between 0% and 100%");
+        }
+        this.basisPoints = basisPoints;
+    }
+
+    private static long checkPercentage(double percentage) {
+        if (!(percentage >= 0 && percentage <= 100)) {
+            throw new IllegalArgumentException("Promotion discount needs to be between 0% and 100%");
+        }
+        return Money.toBasisPoints(percentage);
+    }
+
+    /**
+     * Create a new percent off promotion from a discount in basis points.
+     * @param basisPoints discount in hundredths of a percent, e.g. 3000 for "30% off", between 0 and 10000.
+     * @return the promotion.
+     */
+    public static PercentOffPromotion ofBasisPoints(long basisPoints) {
+        return new PercentOffPromotion(basisPoints);
+    }
+
+    /**
+     * Parse a promotion in the format "n% off".
+     * @param promotion string to be parsed.
+     * @return the parsed promotion or null if the string is in a different format.
+     */
+    static PercentOffPromotion parse(String promotion) {
+        Matcher matcher = PATTERN.matcher(promotion);
+        if (matcher.matches()) {
+            return new PercentOffPromotion(Money.parseScaled(matcher.group(1), 2));
+        }
+        return null;
+    }
+
+    public double getPercentage() {
+        return basisPoints / 100.0;
+    }
+
+    public long getBasisPoints() {
+        return basisPoints;
+    }
+
+    @Override
+    public long apply(long amount, long priceCents) {
+        return apply(amount, priceCents, basisPoints);
+    }
+
+    /**
+     * Get the price of an amount of a product after a percent off promotion.
+     * @param amount of the product, not negative.
+     * @param priceCents unit price of the product in cents.
+     * @param basisPoints discount in hundredths of a percent.
+     * @return the price for the whole amount in cents.
+     */
+    static long apply(long amount, long priceCents, long basisPoints) {
+        return Money.percentOf(amount, priceCents, Money.FULL_PERCENTAGE - basisPoints);
+    }
+
+    @Override
+    public String toString() {
+        return Money.formatScaled(basisPoints, 2) + "% off";
+    }
+}
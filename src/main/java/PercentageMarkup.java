@@ -0,0 +1,83 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Markup in the format "n%", relative to the unit cost of the product.
+ */
+public final class PercentageMarkup implements Markup {
+    private static final Pattern PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)?)%");
+
+    private final long basisPoints;
+
+    /**
+     * Create a new percentage markup.
+     * @param percentage in percent, e.g. 80 for "80%", must not be negative. Kept in basis points.
+     */
+    public PercentageMarkup(double percentage) {
+        this(checkPercentage(percentage));
+    }
+
+    private PercentageMarkup(long basisPoints) {
+        if (basisPoints < 0) {
+            throw new IllegalArgumentException("Markup must be positive");
+        }
+        this.basisPoints = basisPoints;
+    }
+
+    private static long checkPercentage(double percentage) {
+        if (!(percentage >= 0)) {
+            throw new IllegalArgumentException("Markup must be positive");
+        }
+        return Money.toBasisPoints(percentage);
+    }
+
+    /**
+     * Create a new percentage markup from a percentage in basis points.
+     * @param basisPoints percentage in hundredths of a percent, e.g. 8000 for "80%", must not be negative.
+     * @return the markup.
+     */
+    public static PercentageMarkup ofBasisPoints(long basisPoints) {
+        return new PercentageMarkup(basisPoints);
+    }
+
+    /**
+     * Parse a markup in the format "n%".
+     * @param markup string to be parsed.
+     * @return the parsed markup or null if the string is in a different format.
+     */
+    static PercentageMarkup parse(String markup) {
+        Matcher matcher = PATTERN.matcher(markup);
+        if (matcher.matches()) {
+            return new PercentageMarkup(Money.parseScaled(matcher.group(1), 2));
+        }
+        return null;
+    }
+
+    public double getPercentage() {
+        return basisPoints / 100.0;
+    }
+
+    public long getBasisPoints() {
+        return basisPoints;
+    }
+
+    @Override
+    public long getUnitPriceCents(long unitCostCents) {
+        return getUnitPriceCents(unitCostCents, basisPoints);
+    }
+
+    /**
+     * Get the unit price of a product with a percentage markup.
+     * @param unitCostCents unit cost of the product in cents.
+     * @param basisPoints markup in hundredths of a percent.
+     * @return the unit price in cents.
+     */
+    static long getUnitPriceCents(long unitCostCents, long basisPoints) {
+        return Money.percentOf(unitCostCents, Money.FULL_PERCENTAGE + basisPoints);
+    }
+
+    @Override
+    public String toString() {
+        return Money.formatScaled(basisPoints, 2) + "%";
+    }
+}
@@ -0,0 +1,264 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoized total prices of a single product. Low amounts are kept in a dense array,
+ * higher amounts in a small least-recently-used map of primitive longs. The product clears
+ * the cache whenever its unit cost, markup or promotion changes.
+ * <p>
+ * Clearing swaps in empty tables, and prices are only stored in the tables that were
+ * current when their computation started. A price that was computed before a change
+ * therefore never outlives the {@link #clear()} that follows the change.
+ */
+public class PriceCache {
+    /**
+     * Amounts below this value are kept in the dense array by default.
+     */
+    public static final int DEFAULT_DENSE_SIZE = 1024;
+
+    /**
+     * Number of higher amounts that are kept by default.
+     */
+    public static final int DEFAULT_LRU_CAPACITY = 256;
+
+    private static final long MISSING = -1;
+
+    private final int denseSize;
+    private final int lruCapacity;
+    private volatile Tables tables;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Cached prices of one generation of the product.
+     */
+    private static final class Tables {
+        final AtomicLongArray dense;
+        final Lru lru;
+
+        Tables(int denseSize, int lruCapacity) {
+            dense = new AtomicLongArray(denseSize);
+            for (int i = 0; i < denseSize; i++) {
+                dense.set(i, MISSING);
+            }
+            lru = new Lru(lruCapacity);
+        }
+    }
+
+    /**
+     * Least-recently-used map from amounts to prices, with the entries in parallel arrays that
+     * are linked in order of use and indexed by an open-addressing table. Guarded by itself.
+     */
+    private static final class Lru {
+        private final long[] keys;
+        private final long[] values;
+        private final int[] previous;
+        private final int[] next;
+        private final int[] index;
+        private int head = -1;
+        private int tail = -1;
+        private int size;
+
+        Lru(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            previous = new int[capacity];
+            next = new int[capacity];
+            index = new int[Math.max(2, Integer.highestOneBit(Math.max(1, capacity)) * 4)];
+        }
+
+        private int home(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & (index.length - 1);
+        }
+
+        /**
+         * @return the position of the key in the index table, or of the empty slot where it would go.
+         */
+        private int position(long key) {
+            int mask = index.length - 1;
+            int i = home(key);
+            while (index[i] != 0 && keys[index[i] - 1] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        long get(long key) {
+            int entry = index[position(key)] - 1;
+            if (entry < 0) {
+                return MISSING;
+            }
+            moveToHead(entry);
+            return values[entry];
+        }
+
+        void put(long key, long value) {
+            if (keys.length == 0) {
+                return;
+            }
+            int entry = index[position(key)] - 1;
+            if (entry >= 0) {
+                values[entry] = value;
+                moveToHead(entry);
+                return;
+            }
+            if (size == keys.length) {
+                entry = tail;
+                unlink(entry);
+                removeFromIndex(keys[entry]);
+            } else {
+                entry = size++;
+            }
+            keys[entry] = key;
+            values[entry] = value;
+            linkAtHead(entry);
+            index[position(key)] = entry + 1;
+        }
+
+        private void moveToHead(int entry) {
+            if (entry != head) {
+                unlink(entry);
+                linkAtHead(entry);
+            }
+        }
+
+        private void unlink(int entry) {
+            if (previous[entry] >= 0) {
+                next[previous[entry]] = next[entry];
+            } else {
+                head = next[entry];
+            }
+            if (next[entry] >= 0) {
+                previous[next[entry]] = previous[entry];
+            } else {
+                tail = previous[entry];
+            }
+        }
+
+        private void linkAtHead(int entry) {
+            previous[entry] = -1;
+            next[entry] = head;
+            if (head >= 0) {
+                previous[head] = entry;
+            }
+            head = entry;
+            if (tail < 0) {
+                tail = entry;
+            }
+        }
+
+        /**
+         * Remove a key from the index table, shifting back the keys that probed past it.
+         */
+        private void removeFromIndex(long key) {
+            int mask = index.length - 1;
+            int hole = position(key);
+            int i = hole;
+            while (true) {
+                i = (i + 1) & mask;
+                if (index[i] == 0) {
+                    break;
+                }
+                int home = home(keys[index[i] - 1]);
+                // Move the key into the hole unless its home lies cyclically after the hole.
+                boolean homeAfterHole = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+                if (!homeAfterHole) {
+                    index[hole] = index[i];
+                    hole = i;
+                }
+            }
+            index[hole] = 0;
+        }
+    }
+
+    /**
+     * Create a cache with the default sizes.
+     */
+    public PriceCache() {
+        this(DEFAULT_DENSE_SIZE, DEFAULT_LRU_CAPACITY);
+    }
+
+    /**
+     * Create a new cache.
+     * @param denseSize amounts below this value are kept in a dense array.
+     * @param lruCapacity maximum number of higher amounts that are kept.
+     */
+    public PriceCache(int denseSize, int lruCapacity) {
+        if (denseSize < 0 || lruCapacity < 0) {
+            throw new IllegalArgumentException("Cache sizes cannot be negative");
+        }
+        this.denseSize = denseSize;
+        this.lruCapacity = lruCapacity;
+        tables = new Tables(denseSize, lruCapacity);
+    }
+
+    /**
+     * Create an empty cache with the same sizes as this one, e.g. for a copy of the product.
+     * @return the new cache.
+     */
+    public PriceCache emptyCopy() {
+        return new PriceCache(denseSize, lruCapacity);
+    }
+
+    public int getDenseSize() {
+        return denseSize;
+    }
+
+    public int getLruCapacity() {
+        return lruCapacity;
+    }
+
+    /**
+     * Get the total price of an amount of the product, computing it on a miss.
+     * @param amount of the product, not negative.
+     * @param product of which the price is cached.
+     * @return the total price in cents.
+     */
+    long get(long amount, Product product) {
+        // Read the tables before the product, so a change of the product that is seen
+        // by the computation is followed by a clear that discards its result.
+        Tables t = tables;
+        if (amount < denseSize) {
+            long cents = t.dense.get((int) amount);
+            if (cents != MISSING) {
+                hits.increment();
+                return cents;
+            }
+            misses.increment();
+            cents = product.computeTotalPriceCents(amount);
+            t.dense.set((int) amount, cents);
+            return cents;
+        }
+        long cents;
+        synchronized (t.lru) {
+            cents = t.lru.get(amount);
+        }
+        if (cents != MISSING) {
+            hits.increment();
+            return cents;
+        }
+        misses.increment();
+        cents = product.computeTotalPriceCents(amount);
+        synchronized (t.lru) {
+            t.lru.put(amount, cents);
+        }
+        return cents;
+    }
+
+    /**
+     * Forget all cached prices, including the ones that are being computed right now.
+     * The hit and miss counters are kept.
+     */
+    public void clear() {
+        tables = new Tables(denseSize, lruCapacity);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
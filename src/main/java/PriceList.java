@@ -0,0 +1,64 @@
+/**
+ * Immutable list of the unit prices of all products at one point in time,
+ * in the order of the product SKUs.
+ */
+public final class PriceList {
+    private final String[] skus;
+    private final long[] unitPriceCents;
+
+    /**
+     * Create a price list with the current unit prices of products.
+     * @param products in the order of their SKUs.
+     */
+    PriceList(Product[] products) {
+        skus = new String[products.length];
+        unitPriceCents = new long[products.length];
+        for (int i = 0; i < products.length; i++) {
+            skus[i] = products[i].getSku();
+            unitPriceCents[i] = products[i].getUnitPriceWithMarkupCents();
+        }
+    }
+
+    /**
+     * @return the number of products in the list.
+     */
+    public int size() {
+        return skus.length;
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @return the id of the product.
+     * @throws IllegalStateException if the SKU of the product is longer than one character.
+     */
+    public char getId(int index) {
+        if (skus[index].length() != 1) {
+            throw new IllegalStateException("Product " + skus[index] + " has no single-character id");
+        }
+        return skus[index].charAt(0);
+    }
+
+    /**
+     * @param index position of the product SKU in the ordered SKUs.
+     * @return the SKU of the product.
+     */
+    public String getSku(int index) {
+        return skus[index];
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @return the unit price with the markup applied in EUR.
+     */
+    public double getUnitPrice(int index) {
+        return Money.toEur(unitPriceCents[index]);
+    }
+
+    /**
+     * @param index position of the product id in the ordered ids.
+     * @return the unit price with the markup applied in cents.
+     */
+    public long getUnitPriceCents(int index) {
+        return unitPriceCents[index];
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * The result of pricing an {@link OrderRequest}.
+ */
+public final class PricedOrder {
+    private final int clientId;
+    private final long totalBeforeDiscountsCents;
+    private final long totalCents;
+
+    /**
+     * Create a new priced order.
+     * @param clientId id of the client that placed the order.
+     * @param totalBeforeDiscountsCents sum of all the lines in cents.
+     * @param totalCents price after applying the client discounts in cents.
+     */
+    public PricedOrder(int clientId, long totalBeforeDiscountsCents, long totalCents) {
+        this.clientId = clientId;
+        this.totalBeforeDiscountsCents = totalBeforeDiscountsCents;
+        this.totalCents = totalCents;
+    }
+
+    public int getClientId() {
+        return clientId;
+    }
+
+    public double getTotalBeforeDiscounts() {
+        return Money.toEur(totalBeforeDiscountsCents);
+    }
+
+    public long getTotalBeforeDiscountsCents() {
+        return totalBeforeDiscountsCents;
+    }
+
+    public double getTotal() {
+        return Money.toEur(totalCents);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+}
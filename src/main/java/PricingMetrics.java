@@ -0,0 +1,246 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the pricing hot paths: {@link Product#checkTotalPriceCents(long)},
+ * {@link Client#addToOrder(Product, int)} and {@link Client#finishOrder()}, the volume discount
+ * tiers that orders reach and the promotions that are applied per product.
+ * <p>
+ * Nothing is recorded unless the JVM is started with {@code -Dpricing.metrics=true}. The switch
+ * is a static final constant, so with metrics off the JIT compiler removes the instrumentation
+ * from the hot paths entirely.
+ */
+public class PricingMetrics implements PricingMetricsMXBean {
+    /**
+     * Whether the hot paths record anything, set by the system property {@code pricing.metrics}.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("pricing.metrics");
+
+    /**
+     * Name under which the metrics are registered with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "pricing:type=PricingMetrics";
+
+    private static final PricingMetrics GLOBAL = new PricingMetrics();
+
+    private final LatencyHistogram checkTotalPrice = new LatencyHistogram();
+    private final LatencyHistogram addToOrder = new LatencyHistogram();
+    private final LatencyHistogram finishOrder = new LatencyHistogram();
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder ordersAbove10k = new LongAdder();
+    private final LongAdder ordersAbove30k = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> promotionApplications = new ConcurrentHashMap<>();
+
+    /**
+     * @return the metrics that the hot paths record to.
+     */
+    public static PricingMetrics get() {
+        return GLOBAL;
+    }
+
+    void recordCheckTotalPrice(long nanos) {
+        checkTotalPrice.record(nanos);
+    }
+
+    void recordAddToOrder(long nanos) {
+        addToOrder.record(nanos);
+    }
+
+    void recordFinishOrder(long nanos) {
+        finishOrder.record(nanos);
+    }
+
+    /**
+     * Count a finished order.
+     * @param tier of volume discount that the order reached, or null if there is none.
+     */
+    void recordOrder(DiscountStep.Kind tier) {
+        orders.increment();
+        if (tier == DiscountStep.Kind.ABOVE_10K) {
+            ordersAbove10k.increment();
+        } else if (tier == DiscountStep.Kind.ABOVE_30K) {
+            ordersAbove30k.increment();
+        }
+    }
+
+    /**
+     * Count an application of the promotion of a product.
+     * @param sku of the product.
+     */
+    void recordPromotion(String sku) {
+        LongAdder counter = promotionApplications.get(sku);
+        if (counter == null) {
+            counter = promotionApplications.computeIfAbsent(sku, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public LatencyHistogram getCheckTotalPriceHistogram() {
+        return checkTotalPrice;
+    }
+
+    public LatencyHistogram getAddToOrderHistogram() {
+        return addToOrder;
+    }
+
+    public LatencyHistogram getFinishOrderHistogram() {
+        return finishOrder;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public Map<String, Long> getCheckTotalPriceLatency() {
+        return summarize(checkTotalPrice);
+    }
+
+    @Override
+    public Map<String, Long> getAddToOrderLatency() {
+        return summarize(addToOrder);
+    }
+
+    @Override
+    public Map<String, Long> getFinishOrderLatency() {
+        return summarize(finishOrder);
+    }
+
+    @Override
+    public long getOrders() {
+        return orders.sum();
+    }
+
+    @Override
+    public long getOrdersAbove10k() {
+        return ordersAbove10k.sum();
+    }
+
+    @Override
+    public long getOrdersAbove30k() {
+        return ordersAbove30k.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPromotionApplications() {
+        Map<String, Long> applications = new TreeMap<>();
+        promotionApplications.forEach((sku, counter) -> applications.put(sku, counter.sum()));
+        return applications;
+    }
+
+    private static Map<String, Long> summarize(LatencyHistogram histogram) {
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getCount());
+        summary.put("meanNanos", Math.round(histogram.getMean()));
+        summary.put("p50Nanos", histogram.getValueAtPercentile(50));
+        summary.put("p90Nanos", histogram.getValueAtPercentile(90));
+        summary.put("p99Nanos", histogram.getValueAtPercentile(99));
+        summary.put("p999Nanos", histogram.getValueAtPercentile(99.9));
+        summary.put("maxNanos", histogram.getMax());
+        return summary;
+    }
+
+    /**
+     * Format a latency in microseconds with one decimal.
+     * @param nanos the latency in nanoseconds.
+     * @return the latency, e.g. "1.5us".
+     */
+    private static String micros(double nanos) {
+        return Money.formatScaled(Math.round(nanos / 100), 1) + "us";
+    }
+
+    private static void dump(StringBuilder sb, String name, LatencyHistogram histogram) {
+        sb.append(name)
+                .append(": count=").append(histogram.getCount())
+                .append(" mean=").append(micros(histogram.getMean()))
+                .append(" p50=").append(micros(histogram.getValueAtPercentile(50)))
+                .append(" p99=").append(micros(histogram.getValueAtPercentile(99)))
+                .append(" p99.9=").append(micros(histogram.getValueAtPercentile(99.9)))
+                .append(" max=").append(micros(histogram.getMax()))
+                .append(System.lineSeparator());
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        dump(sb, "checkTotalPrice", checkTotalPrice);
+        dump(sb, "addToOrder", addToOrder);
+        dump(sb, "finishOrder", finishOrder);
+        sb.append("orders: ").append(getOrders())
+                .append(", above 10k: ").append(getOrdersAbove10k())
+                .append(", above 30k: ").append(getOrdersAbove30k())
+                .append(System.lineSeparator());
+        sb.append("promotions applied: ").append(getPromotionApplications()).append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        checkTotalPrice.reset();
+        addToOrder.reset();
+        finishOrder.reset();
+        orders.reset();
+        ordersAbove10k.reset();
+        ordersAbove30k.reset();
+        promotionApplications.clear();
+    }
+
+    /**
+     * Register the metrics with the platform MBean server, unless they already are.
+     */
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the pricing metrics", e);
+        }
+    }
+
+    /**
+     * Write {@link #dump()} periodically from a background daemon thread.
+     * @param out to which the metrics are written and flushed.
+     * @param period between two dumps.
+     * @param unit of the period.
+     * @return the scheduled dumps, cancel it to stop them.
+     */
+    public ScheduledFuture<?> startDump(Writer out, long period, TimeUnit unit) {
+        return DumpScheduler.INSTANCE.scheduleAtFixedRate(() -> {
+            try {
+                out.write(dump());
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Holder of the thread of the periodic dumps, so that it is only started when needed.
+     */
+    private static class DumpScheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pricing-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
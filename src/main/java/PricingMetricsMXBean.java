@@ -0,0 +1,38 @@
+import java.util.Map;
+
+/**
+ * Management interface of {@link PricingMetrics}, registered under
+ * {@value PricingMetrics#OBJECT_NAME}. Latencies are summarized as count, mean,
+ * percentiles and maximum in nanoseconds.
+ */
+public interface PricingMetricsMXBean {
+
+    boolean isEnabled();
+
+    Map<String, Long> getCheckTotalPriceLatency();
+
+    Map<String, Long> getAddToOrderLatency();
+
+    Map<String, Long> getFinishOrderLatency();
+
+    long getOrders();
+
+    long getOrdersAbove10k();
+
+    long getOrdersAbove30k();
+
+    /**
+     * @return the number of times the promotion of each product was applied, by SKU.
+     */
+    Map<String, Long> getPromotionApplications();
+
+    /**
+     * @return all metrics as text, one line per operation.
+     */
+    String dump();
+
+    /**
+     * Forget all recorded metrics.
+     */
+    void reset();
+}
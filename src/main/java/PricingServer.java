@@ -0,0 +1,198 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running HTTP service that prices orders, so that the catalog is loaded once instead
+ * of once per order. Every request runs on its own virtual thread when the JVM supports them.
+ * <p>
+ * {@code GET /price?client=1&amounts=10,20,0,5} prices an order, with the amounts in the
+ * order of the product ids, and {@code GET /discounts?client=1} returns the discounts of
+ * a client. Both answer with JSON; invalid requests get status 400.
+ */
+public class PricingServer {
+    static {
+        // Responses are small and written as headers and body separately; without TCP_NODELAY
+        // the body waits for the delayed acknowledgement of the headers.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final VersionedCatalog catalog;
+    private final ClientCollection clients;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Create a new server. It does not accept requests until it is started.
+     * @param catalog against which the orders are priced, in its version at the time of the request.
+     * @param clients that place the orders.
+     * @param port to listen on, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public PricingServer(VersionedCatalog catalog, ClientCollection clients, int port) throws IOException {
+        this.catalog = catalog;
+        this.clients = clients;
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newPerRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/price", exchange -> handle(exchange, this::price));
+        server.createContext("/discounts", exchange -> handle(exchange, this::discounts));
+    }
+
+    /**
+     * Use a virtual thread per request where the JVM offers them as a standard API, and a
+     * pool of platform threads otherwise. The method is looked up reflectively because the
+     * project is compiled for a release in which virtual threads are not final yet.
+     * @return the executor for the requests.
+     */
+    static ExecutorService newPerRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, wait at most a second for running ones and release the threads.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handler of a single endpoint: turns the query of a request into a JSON body.
+     */
+    private interface Endpoint {
+        String respond(String query);
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        int status;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                status = 405;
+                body = error("Only GET is supported");
+            } else {
+                status = 200;
+                body = endpoint.respond(exchange.getRequestURI().getRawQuery());
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    /**
+     * Get the value of a parameter of a query such as {@code client=1&amounts=1,2}.
+     * @return the value, or null if the parameter is missing.
+     */
+    static String getParameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals == name.length() && parameter.startsWith(name)) {
+                return parameter.substring(equals + 1);
+            }
+        }
+        return null;
+    }
+
+    private Client getClient(String query) {
+        String id = getParameter(query, "client");
+        if (id == null) {
+            throw new IllegalArgumentException("Missing parameter: client");
+        }
+        Client client = clients.get(Integer.parseInt(id));
+        if (client == null) {
+            throw new IllegalArgumentException("There is no client with ID: " + id);
+        }
+        return client;
+    }
+
+    private String price(String query) {
+        Client client = getClient(query);
+        String amounts = getParameter(query, "amounts");
+        int[] parsed = amounts == null || amounts.isEmpty()
+                ? new int[0]
+                : Arrays.stream(amounts.split(",")).mapToInt(Integer::parseInt).toArray();
+        PricedOrder order = new OrderPricer(catalog.current(), clients).price(client.getId(), parsed, parsed.length);
+        return "{\"client\":" + order.getClientId()
+                + ",\"totalBeforeDiscounts\":" + order.getTotalBeforeDiscounts()
+                + ",\"total\":" + order.getTotal() + "}";
+    }
+
+    private String discounts(String query) {
+        Client client = getClient(query);
+        return "{\"client\":" + client.getId()
+                + ",\"basic\":" + client.getBasicClientDiscount()
+                + ",\"above10k\":" + client.getAdditionalVolumeDiscountAbove10k()
+                + ",\"above30k\":" + client.getAdditionalVolumeDiscountAbove30k() + "}";
+    }
+
+    /**
+     * Start a server with the products and clients of {@link Main}, or with the ones of two CSV files.
+     * @param args optionally the port, followed by optionally a product and a client CSV file.
+     * @throws IOException if the port cannot be bound or the files cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        ProductCollection products;
+        ClientCollection clients;
+        if (args.length >= 3) {
+            products = new ProductCollection();
+            clients = new ClientCollection();
+            CatalogLoader.loadProducts(Path.of(args[1]), products);
+            CatalogLoader.loadClients(Path.of(args[2]), clients);
+        } else {
+            products = Main.createProducts();
+            clients = Main.createClients();
+        }
+        PricingServer server = new PricingServer(new VersionedCatalog(products), clients, port);
+        server.start();
+        System.out.println("Pricing server listening on port " + server.getPort());
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.get().register();
+            PricingMetrics.get().startDump(new PrintWriter(System.err), 60, TimeUnit.SECONDS);
+        }
+    }
+}
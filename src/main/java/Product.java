@@ -1,155 +1,229 @@
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Class that represents a product of the beverage producer.
+ * A product is identified by its SKU, which is any non-empty string. Most catalogs use
+ * single-character SKUs, which double as the {@code char} id of the product.
  */
 public class Product {
-    private final char id;
+    private final String sku;
     private double unitCost;
     private String markup;
-    private double markupTerm;
+    private Markup markupRule;
+    private long unitPriceCents;
     private String productPromotion;
+    private Promotion promotion;
+    private volatile PriceCache priceCache;
 
     /**
      * Create a product with no promotion.
      * @param id unique identifier of the product.
-     * @param unitCost in EUR.
+     * @param unitCost in EUR, kept in whole cents.
      * @param markup either in the format "n%" or "n EUR/unit"
      */
     public Product(char id, double unitCost, String markup) {
-        this(id, unitCost, markup, null);
+        this(String.valueOf(id), unitCost, markup, null);
+    }
+
+    /**
+     * Create a product with no promotion.
+     * @param sku unique identifier of the product, not empty.
+     * @param unitCost in EUR, kept in whole cents.
+     * @param markup either in the format "n%" or "n EUR/unit"
+     */
+    public Product(String sku, double unitCost, String markup) {
+        this(sku, unitCost, markup, null);
     }
 
     /**
      * Create a new product.
      * @param id unique identifier of the product.
-     * @param unitCost in EUR.
+     * @param unitCost in EUR, kept in whole cents.
      * @param markup either in the format "n%" or "n EUR/unit"
      * @param productPromotion either in the format "n% off" or "Buy x, get x+1 free.
      */
     public Product(char id, double unitCost, String markup, String productPromotion) {
-        this.id = id;
+        this(String.valueOf(id), unitCost, markup, productPromotion);
+    }
+
+    /**
+     * Create a new product.
+     * @param sku unique identifier of the product, not empty.
+     * @param unitCost in EUR, kept in whole cents.
+     * @param markup either in the format "n%" or "n EUR/unit"
+     * @param productPromotion either in the format "n% off" or "Buy x, get x+1 free.
+     */
+    public Product(String sku, double unitCost, String markup, String productPromotion) {
+        this.sku = checkSku(sku);
         this.unitCost = unitCost;
         if (unitCost <= 0) {
             throw new IllegalArgumentException("Unit cost must be positive");
         }
-        this.markup = markup;
-        markupTerm = getMarkupTerm();
-        if (markupTerm < 0) {
-            throw new IllegalArgumentException("Markup must be positive");
+        applyMarkup(markup);
+        applyProductPromotion(productPromotion);
+    }
+
+    /**
+     * Create a new product with a markup and promotion that are already parsed.
+     * @param id unique identifier of the product.
+     * @param unitCost in EUR, kept in whole cents.
+     * @param markup of the product.
+     * @param promotion of the product, or null if there is none.
+     */
+    public Product(char id, double unitCost, Markup markup, Promotion promotion) {
+        this(String.valueOf(id), unitCost, markup, promotion);
+    }
+
+    /**
+     * Create a new product with a markup and promotion that are already parsed.
+     * @param sku unique identifier of the product, not empty.
+     * @param unitCost in EUR, kept in whole cents.
+     * @param markup of the product.
+     * @param promotion of the product, or null if there is none.
+     */
+    public Product(String sku, double unitCost, Markup markup, Promotion promotion) {
+        this.sku = checkSku(sku);
+        this.unitCost = unitCost;
+        if (unitCost <= 0) {
+            throw new IllegalArgumentException("Unit cost must be positive");
         }
-        this.productPromotion = productPromotion;
-        checkPromotion();
+        markupRule = markup;
+        unitPriceCents = markupRule.getUnitPriceCents(Money.toCents(unitCost));
+        this.promotion = promotion;
     }
 
+    /**
+     * Create a copy of a product. If the product caches its prices, the copy gets an empty cache of the same sizes.
+     * @param product to be copied.
+     */
+    public Product(Product product) {
+        // Read through the getters, so a copy of a view, e.g. of a ColumnarCatalog, has its current values.
+        sku = product.getSku();
+        unitCost = product.getUnitCost();
+        markupRule = product.getMarkupRule();
+        markup = markupRule == product.markupRule ? product.markup : null;
+        unitPriceCents = product.getUnitPriceWithMarkupCents();
+        promotion = product.getPromotion();
+        productPromotion = promotion == product.promotion ? product.productPromotion : null;
+        PriceCache cache = product.getPriceCache();
+        priceCache = cache == null ? null : cache.emptyCopy();
+    }
+
+    private static String checkSku(String sku) {
+        if (sku == null || sku.isEmpty()) {
+            throw new IllegalArgumentException("SKU cannot be empty");
+        }
+        return sku;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    /**
+     * @return whether the SKU is a single character, which is then the id of the product.
+     */
+    public boolean hasCharId() {
+        return sku.length() == 1;
+    }
+
+    /**
+     * @return the single-character SKU of the product.
+     * @throws IllegalStateException if the SKU is longer than one character.
+     */
     public char getId() {
-        return id;
+        if (sku.length() != 1) {
+            throw new IllegalStateException("Product " + sku + " has no single-character id");
+        }
+        return sku.charAt(0);
     }
 
     public double getUnitCost() {
         return unitCost;
     }
 
+    public long getUnitCostCents() {
+        return Money.toCents(unitCost);
+    }
+
     public void setUnitCost(double unitCost) {
         this.unitCost = unitCost;
+        unitPriceCents = markupRule.getUnitPriceCents(Money.toCents(unitCost));
+        clearPriceCache();
     }
 
     public String getMarkup() {
+        if (markup == null) {
+            markup = markupRule.toString();
+        }
         return markup;
     }
 
     public void setMarkup(String markup) {
+        applyMarkup(markup);
+    }
+
+    private void applyMarkup(String markup) {
+        markupRule = Markup.parse(markup);
         this.markup = markup;
-        markupTerm = getMarkupTerm();
+        unitPriceCents = markupRule.getUnitPriceCents(Money.toCents(unitCost));
+        clearPriceCache();
+    }
+
+    public Markup getMarkupRule() {
+        return markupRule;
     }
 
     public String getProductPromotion() {
+        if (productPromotion == null && promotion != null) {
+            productPromotion = promotion.toString();
+        }
         return productPromotion;
     }
 
     public void setProductPromotion(String productPromotion) {
+        applyProductPromotion(productPromotion);
+    }
+
+    private void applyProductPromotion(String productPromotion) {
+        promotion = PromotionRegistry.getDefault().parse(productPromotion);
         this.productPromotion = productPromotion;
+        clearPriceCache();
     }
 
-    /**
-     * Used to round a number (price in EUR) to 2 decimals.
-     * @param number to be rounded.
-     * @return the number rounded to 2 decimals.
-     */
-    private double round2(double number) {
-        return Math.round(number * 100.0) / 100.0;
+    public Promotion getPromotion() {
+        return promotion;
     }
 
     /**
-     * Parse the markup such that it can be added to the unit cost.
-     * @return markup term. It can be added to the unit cost to get the value of the product
-     * with the markup applied.
+     * Memoize the total prices of this product, see {@link PriceCache}.
+     * @param priceCache used from now on, or null to stop caching.
      */
-    private double getMarkupTerm() {
-
-        // Markup is in the format "n%"
-        Pattern pattern1 = Pattern.compile("(\\d+(?:\\.\\d+)?)%");
-        Matcher matcher = pattern1.matcher(markup);
-        if (matcher.matches()) {
-            return unitCost * Double.parseDouble(matcher.group(1)) / 100;
-        }
-
-        // Markup is in the format "n EUR/unit"
-        Pattern pattern2 = Pattern.compile("(\\d+(?:\\.\\d+)?) EUR/unit");
-        matcher = pattern2.matcher(markup);
-        if (matcher.matches()) {
-            return Double.parseDouble(matcher.group(1));
-        }
+    public void setPriceCache(PriceCache priceCache) {
+        this.priceCache = priceCache;
+    }
 
-        throw new IllegalArgumentException("Unsupported markup format.");
+    public PriceCache getPriceCache() {
+        return priceCache;
     }
 
-    /**
-     * Ensure that the product promotion is in a correct format and, therefore,
-     * can be parsed in used in the calculations.
-     */
-    private void checkPromotion() {
-        if (productPromotion == null) {
-            return;
-        }
-        Pattern discountPattern = Pattern.compile("(\\d+(?:\\.\\d+)?)% off");
-        Pattern bogoPattern = Pattern.compile("Buy (\\d+), get \\d+[a-z]{2} free");
-        if (!(discountPattern.matcher(productPromotion).matches() || bogoPattern.matcher(productPromotion).matches())) {
-            throw new IllegalArgumentException("Unsupported product promotion.");
+    private void clearPriceCache() {
+        if (priceCache != null) {
+            priceCache.clear();
         }
     }
 
     /**
      * Update the price of the product by applying the product promotion.
      * @param amount of the product requested for purchase.
-     * @param price of the product with the markup included in EUR.
-     * @return the new price after applying the product promotion, if applicable.
+     * @param priceCents of the product with the markup included in cents.
+     * @return the new price in cents after applying the product promotion, if applicable.
      */
-    private double applyPromotion(int amount, double price) {
+    private long applyPromotion(long amount, long priceCents) {
 
         // There is no promotion.
-        if (productPromotion == null) {
-            return amount * price;
+        if (promotion == null) {
+            return Math.multiplyExact(amount, priceCents);
         }
-
-        // Promotion is in the format "n off"
-        Pattern discountPattern = Pattern.compile("(\\d+(?:\\.\\d+)?)% off");
-        Matcher matcher = discountPattern.matcher(productPromotion);
-        if (matcher.matches()) {
-            double discount = 1 - Double.parseDouble(matcher.group(1)) / 100;
-            return amount * price * discount;
-        }
-
-        // Promotion is in the format "buy x, get (x+1) free"
-        Pattern bogoPattern = Pattern.compile("Buy (\\d+), get \\d+[a-z]{2} free");
-        matcher = bogoPattern.matcher(productPromotion);
-        if (matcher.matches()) {
-            int paidAmount = amount - amount / (Integer.parseInt(matcher.group(1)) + 1);
-            return paidAmount * price;
-        }
-
-        return 0;
+        return promotion.apply(amount, priceCents);
     }
 
     /**
@@ -157,11 +231,45 @@ public class Product {
      * @param amount of the product requested for purchase.
      * @return the full price of the product after applying markup and product promotion.
      */
-    public double checkTotalPrice(int amount) {
+    public double checkTotalPrice(long amount) {
+        return Money.toEur(checkTotalPriceCents(amount));
+    }
+
+    /**
+     * Get the full price of the product for a specified amount in cents.
+     * @param amount of the product requested for purchase.
+     * @return the full price of the product in cents after applying markup and product promotion.
+     * @throws ArithmeticException if the price exceeds the range of a {@code long}.
+     */
+    public long checkTotalPriceCents(long amount) {
         if(!(amount >= 0)) {
             throw new IllegalArgumentException("Cannot buy a negative amount.");
         }
-        return round2(applyPromotion(amount, getUnitPriceWithMarkup()));
+        if (PricingMetrics.ENABLED) {
+            long start = System.nanoTime();
+            long cents = lookupTotalPriceCents(amount);
+            PricingMetrics metrics = PricingMetrics.get();
+            metrics.recordCheckTotalPrice(System.nanoTime() - start);
+            if (promotion != null && amount > 0) {
+                metrics.recordPromotion(sku);
+            }
+            return cents;
+        }
+        return lookupTotalPriceCents(amount);
+    }
+
+    private long lookupTotalPriceCents(long amount) {
+        PriceCache cache = priceCache;
+        return cache == null ? computeTotalPriceCents(amount) : cache.get(amount, this);
+    }
+
+    /**
+     * Compute the full price of the product for a specified amount, bypassing the price cache.
+     * @param amount of the product requested for purchase, not negative.
+     * @return the full price of the product in cents.
+     */
+    long computeTotalPriceCents(long amount) {
+        return applyPromotion(amount, unitPriceCents);
     }
 
     /**
@@ -169,6 +277,14 @@ public class Product {
      * @return price in EUR.
      */
     public double getUnitPriceWithMarkup() {
-        return round2(unitCost + markupTerm);
+        return Money.toEur(unitPriceCents);
+    }
+
+    /**
+     * Get the unit price with the markup applied.
+     * @return price in cents.
+     */
+    public long getUnitPriceWithMarkupCents() {
+        return unitPriceCents;
     }
 }
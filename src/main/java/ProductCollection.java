@@ -1,21 +1,51 @@
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * Class that facilitates storing and managing multiple products.
+ * Besides the products sorted by SKU, the collection keeps an array indexed by id
+ * and an array in SKU order, so that lookups by id and by position take constant time.
+ * Every SKU is interned once into a {@link SkuDictionary}, and products are kept in an
+ * array indexed by the ordinal of their SKU, so a lookup by SKU hashes the string once
+ * and runs on ints after that. Single-character SKUs are also looked up by {@code char} id
+ * directly. Changes are serialized; lookups do not lock and see either the whole of a
+ * {@link #reprice(Consumer)} or none of it.
  */
 public class ProductCollection {
-    private SortedMap<Character, Product> products = new TreeMap<>();
+    private SortedMap<String, Product> products = new TreeMap<>();
+    private final SkuDictionary skus = new SkuDictionary();
+    private volatile Product[] byOrdinal = new Product[0];
+    private volatile Product[] byId = new Product[0];
+    private volatile Product[] ordered = new Product[0];
 
     /**
      * Add a product to the collection. Assert that there are
-     * no other products with the same id already in the collection.
+     * no other products with the same SKU already in the collection.
      * @param product
      */
-    public void add(Product product) {
-        if (products.containsKey(product.getId())) {
-            throw new IllegalArgumentException("There is already a product with ID: " + product.getId());
+    public synchronized void add(Product product) {
+        String sku = product.getSku();
+        if (products.containsKey(sku)) {
+            throw new IllegalArgumentException("There is already a product with ID: " + sku);
         }
-        products.put(product.getId(), product);
+        products.put(sku, product);
+        int ordinal = skus.intern(sku);
+        Product[] index = byOrdinal;
+        if (ordinal >= index.length) {
+            index = Arrays.copyOf(index, Math.max(ordinal + 1, 2 * index.length));
+        }
+        index[ordinal] = product;
+        byOrdinal = index;
+        if (product.hasCharId()) {
+            index = byId;
+            if (product.getId() >= index.length) {
+                index = Arrays.copyOf(index, Math.max(product.getId() + 1, 2 * index.length));
+            }
+            index[product.getId()] = product;
+            byId = index;
+        }
+        ordered = null;
     }
 
     /**
@@ -24,7 +54,48 @@ public class ProductCollection {
      * @return the product with the corresponding id.
      */
     public Product get(char id) {
-        return products.get(id);
+        Product[] index = byId;
+        return id < index.length ? index[id] : null;
+    }
+
+    /**
+     * Retrieve a product from the collection, keyed by SKU.
+     * @param sku of the requested product.
+     * @return the product with the corresponding SKU, or null if there is none.
+     */
+    public Product get(String sku) {
+        if (sku.length() == 1) {
+            return get(sku.charAt(0));
+        }
+        int ordinal = skus.lookup(sku);
+        return ordinal < 0 ? null : getByOrdinal(ordinal);
+    }
+
+    /**
+     * Get the ordinal of a SKU in the dictionary of this collection. Ordinals are dense, start at 0
+     * and stay the same for as long as the collection lives, also when the product is removed.
+     * @param sku of a product.
+     * @return the ordinal of the SKU, or -1 if no product with the SKU was ever added.
+     */
+    public int getOrdinal(String sku) {
+        return skus.lookup(sku);
+    }
+
+    /**
+     * Retrieve a product from the collection, keyed by the ordinal of its SKU.
+     * @param ordinal of the SKU, see {@link #getOrdinal(String)}.
+     * @return the product with the corresponding SKU, or null if it was removed.
+     */
+    public Product getByOrdinal(int ordinal) {
+        Product[] index = byOrdinal;
+        return ordinal >= 0 && ordinal < index.length ? index[ordinal] : null;
+    }
+
+    /**
+     * @return the dictionary of the SKUs of this collection.
+     */
+    SkuDictionary getSkuDictionary() {
+        return skus;
     }
 
     /**
@@ -32,7 +103,22 @@ public class ProductCollection {
      * @param id of the product to be removed.
      */
     public void remove(char id) {
-        products.remove(id);
+        remove(String.valueOf(id));
+    }
+
+    /**
+     * Remove a product from the collection by giving the SKU.
+     * @param sku of the product to be removed.
+     */
+    public synchronized void remove(String sku) {
+        Product product = products.remove(sku);
+        if (product != null) {
+            byOrdinal[skus.lookup(sku)] = null;
+            if (product.hasCharId()) {
+                byId[product.getId()] = null;
+            }
+            ordered = null;
+        }
     }
 
     /**
@@ -41,6 +127,78 @@ public class ProductCollection {
      * @return the product with the corresponding id.
      */
     public Product get(int id) {
-        return products.get(new ArrayList<>(products.keySet()).get(id));
+        return getOrdered()[id];
+    }
+
+    /**
+     * @return the products in SKU order, rebuilt after the collection changed.
+     */
+    private Product[] getOrdered() {
+        Product[] result = ordered;
+        if (result == null) {
+            synchronized (this) {
+                result = ordered;
+                if (result == null) {
+                    result = products.values().toArray(new Product[0]);
+                    ordered = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the products in the collection, sorted by SKU.
+     */
+    public Collection<Product> getProducts() {
+        return Collections.unmodifiableList(Arrays.asList(getOrdered()));
+    }
+
+    /**
+     * @return the number of products in the collection.
+     */
+    public int size() {
+        return getOrdered().length;
+    }
+
+    /**
+     * Change every product, e.g. its unit cost or markup, in parallel. The update is applied
+     * to copies of the products, which replace the originals all at once when every update
+     * succeeded, so lookups never see a partly updated catalog. If an update fails,
+     * the collection is left unchanged.
+     * @param update applied to a copy of every product.
+     * @return the unit prices of the updated catalog.
+     */
+    public synchronized PriceList reprice(Consumer<Product> update) {
+        Product[] current = getOrdered();
+        Product[] updated = new Product[current.length];
+        IntStream.range(0, current.length).parallel().forEach(i -> {
+            Product copy = new Product(current[i]);
+            update.accept(copy);
+            updated[i] = copy;
+        });
+
+        SortedMap<String, Product> updatedProducts = new TreeMap<>();
+        Product[] updatedByOrdinal = new Product[byOrdinal.length];
+        Product[] updatedById = new Product[byId.length];
+        for (Product product : updated) {
+            updatedProducts.put(product.getSku(), product);
+            updatedByOrdinal[skus.lookup(product.getSku())] = product;
+            if (product.hasCharId()) {
+                updatedById[product.getId()] = product;
+            }
+        }
+        products = updatedProducts;
+        byOrdinal = updatedByOrdinal;
+        byId = updatedById;
+        ordered = updated;
+        return new PriceList(updated);
+    }
+
+    /**
+     * @return the unit prices of the current catalog.
+     */
+    public PriceList getPriceList() {
+        return new PriceList(getOrdered());
     }
 }
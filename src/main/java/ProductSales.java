@@ -0,0 +1,62 @@
+/**
+ * Units and revenue of a single product, as rolled up by {@link SalesRollup}.
+ */
+public final class ProductSales {
+    private final String sku;
+    private final long units;
+    private final long revenueCents;
+
+    /**
+     * Create a new roll-up of a product.
+     * @param sku of the product.
+     * @param units of the product that were sold.
+     * @param revenueCents sum of the lines of the product after the product promotion in cents.
+     */
+    public ProductSales(String sku, long units, long revenueCents) {
+        this.sku = sku;
+        this.units = units;
+        this.revenueCents = revenueCents;
+    }
+
+    /**
+     * Create a new roll-up of a product with a single-character SKU.
+     * @param productId id of the product.
+     * @param units of the product that were sold.
+     * @param revenueCents sum of the lines of the product after the product promotion in cents.
+     */
+    public ProductSales(char productId, long units, long revenueCents) {
+        this(String.valueOf(productId), units, revenueCents);
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    /**
+     * @return the single-character SKU of the product.
+     * @throws IllegalStateException if the SKU is longer than one character.
+     */
+    public char getProductId() {
+        if (sku.length() != 1) {
+            throw new IllegalStateException("Product " + sku + " has no single-character id");
+        }
+        return sku.charAt(0);
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getRevenue() {
+        return Money.toEur(revenueCents);
+    }
+
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+
+    @Override
+    public String toString() {
+        return sku + ": " + units + " units, " + getRevenue() + " EUR";
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * A parsed product promotion. Implementations are immutable and are created once,
+ * when the promotion string of a product is set, so that pricing does not need to
+ * parse any strings.
+ */
+public interface Promotion {
+
+    /**
+     * Get the price of an amount of a product after applying the promotion.
+     * Implementations compute the price in closed form, without allocating.
+     * @param amount of the product requested for purchase, not negative.
+     * @param priceCents unit price of the product with the markup included in cents.
+     * @return the price for the whole amount, rounded to whole cents.
+     * @throws ArithmeticException if the price exceeds the range of a {@code long}.
+     */
+    long apply(long amount, long priceCents);
+
+    /**
+     * Get how much the promotion takes off the full price of an amount of a product.
+     * @param amount of the product requested for purchase, not negative.
+     * @param priceCents unit price of the product with the markup included in cents.
+     * @return the discount in cents.
+     * @throws ArithmeticException if the full price exceeds the range of a {@code long}.
+     */
+    default long getDiscountCents(long amount, long priceCents) {
+        return Math.multiplyExact(amount, priceCents) - apply(amount, priceCents);
+    }
+}
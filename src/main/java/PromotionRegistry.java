@@ -0,0 +1,53 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Registry of the supported product promotion formats. Each format is a parser that
+ * returns the parsed promotion or null if the string is in a different format.
+ * New formats can be registered without changing {@link Product}.
+ */
+public final class PromotionRegistry {
+    private static final PromotionRegistry DEFAULT = new PromotionRegistry();
+
+    static {
+        DEFAULT.register(PercentOffPromotion::parse);
+        DEFAULT.register(BuyNGetOnePromotion::parse);
+    }
+
+    private final List<Function<String, ? extends Promotion>> parsers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Get the registry used by products.
+     * @return the default registry.
+     */
+    public static PromotionRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Register a new promotion format. Formats are tried in order of registration.
+     * @param parser returning the parsed promotion or null if the string is not in its format.
+     */
+    public void register(Function<String, ? extends Promotion> parser) {
+        parsers.add(parser);
+    }
+
+    /**
+     * Parse a promotion string with the first matching format.
+     * @param promotion string to be parsed, or null for no promotion.
+     * @return the parsed promotion or null if there is no promotion.
+     */
+    public Promotion parse(String promotion) {
+        if (promotion == null) {
+            return null;
+        }
+        for (Function<String, ? extends Promotion> parser : parsers) {
+            Promotion parsed = parser.apply(promotion);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported product promotion.");
+    }
+}
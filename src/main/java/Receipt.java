@@ -0,0 +1,57 @@
+import java.util.List;
+
+/**
+ * Immutable summary of a finished order: the lines, the client discounts
+ * and the totals before and after those discounts.
+ */
+public final class Receipt {
+    private final int clientId;
+    private final List<ReceiptLine> lines;
+    private final long totalBeforeDiscountsCents;
+    private final List<DiscountStep> discounts;
+    private final long totalCents;
+
+    /**
+     * Create a new receipt.
+     * @param clientId id of the client that placed the order.
+     * @param lines of the order.
+     * @param totalBeforeDiscountsCents sum of the lines in cents.
+     * @param discounts client discounts applied, in order.
+     * @param totalCents price after applying the client discounts in cents.
+     */
+    public Receipt(int clientId, List<ReceiptLine> lines, long totalBeforeDiscountsCents, List<DiscountStep> discounts, long totalCents) {
+        this.clientId = clientId;
+        this.lines = List.copyOf(lines);
+        this.totalBeforeDiscountsCents = totalBeforeDiscountsCents;
+        this.discounts = List.copyOf(discounts);
+        this.totalCents = totalCents;
+    }
+
+    public int getClientId() {
+        return clientId;
+    }
+
+    public List<ReceiptLine> getLines() {
+        return lines;
+    }
+
+    public double getTotalBeforeDiscounts() {
+        return Money.toEur(totalBeforeDiscountsCents);
+    }
+
+    public long getTotalBeforeDiscountsCents() {
+        return totalBeforeDiscountsCents;
+    }
+
+    public List<DiscountStep> getDiscounts() {
+        return discounts;
+    }
+
+    public double getTotal() {
+        return Money.toEur(totalCents);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * A priced line of an order: an amount of a single product.
+ */
+public final class ReceiptLine {
+    private final String sku;
+    private final char productId;
+    private final int amount;
+    private final long unitPriceCents;
+    private final long totalCents;
+
+    /**
+     * Price an amount of a product.
+     * @param product that is ordered.
+     * @param amount of the product that is ordered.
+     */
+    public ReceiptLine(Product product, int amount) {
+        this(product.getSku(), amount, product.getUnitPriceWithMarkupCents(), product.checkTotalPriceCents(amount));
+    }
+
+    /**
+     * Create a line of which the prices are already known.
+     * @param sku of the ordered product.
+     * @param amount of the product that is ordered.
+     * @param unitPriceCents of the product with the markup included in cents.
+     * @param totalCents price of the line after the product promotion in cents.
+     */
+    public ReceiptLine(String sku, int amount, long unitPriceCents, long totalCents) {
+        this.sku = sku;
+        this.productId = sku.length() == 1 ? sku.charAt(0) : 0;
+        this.amount = amount;
+        this.unitPriceCents = unitPriceCents;
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * Create a line of which the prices are already known.
+     * @param productId id of the ordered product.
+     * @param amount of the product that is ordered.
+     * @param unitPriceCents of the product with the markup included in cents.
+     * @param totalCents price of the line after the product promotion in cents.
+     */
+    public ReceiptLine(char productId, int amount, long unitPriceCents, long totalCents) {
+        this.sku = null;
+        this.productId = productId;
+        this.amount = amount;
+        this.unitPriceCents = unitPriceCents;
+        this.totalCents = totalCents;
+    }
+
+    public String getSku() {
+        return sku != null ? sku : String.valueOf(productId);
+    }
+
+    /**
+     * @return the single-character SKU of the ordered product.
+     * @throws IllegalStateException if the SKU is longer than one character.
+     */
+    public char getProductId() {
+        if (sku != null && sku.length() != 1) {
+            throw new IllegalStateException("Product " + sku + " has no single-character id");
+        }
+        return productId;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public double getUnitPrice() {
+        return Money.toEur(unitPriceCents);
+    }
+
+    public long getUnitPriceCents() {
+        return unitPriceCents;
+    }
+
+    public double getTotal() {
+        return Money.toEur(totalCents);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return whether a product promotion changed the price of the line.
+     */
+    public boolean isPromotional() {
+        return unitPriceCents * amount != totalCents;
+    }
+
+    /**
+     * @return the mean price of a unit after applying the product promotion in EUR.
+     */
+    public double getMeanPromotionalUnitPrice() {
+        return getTotal() / amount;
+    }
+}
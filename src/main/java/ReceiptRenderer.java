@@ -0,0 +1,71 @@
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Presents priced orders. Computing prices never depends on a renderer, so the
+ * output can be sent to the console, to a buffered writer or be dropped entirely.
+ */
+public interface ReceiptRenderer {
+
+    /**
+     * Renderer that does not output anything.
+     */
+    ReceiptRenderer NONE = new ReceiptRenderer() {
+        @Override
+        public void renderLine(ReceiptLine line) {
+        }
+
+        @Override
+        public void renderTotals(double totalBeforeDiscounts, List<DiscountStep> discounts, double total) {
+        }
+    };
+
+    /**
+     * Present a single line of an order.
+     * @param line to be presented.
+     */
+    void renderLine(ReceiptLine line);
+
+    /**
+     * Present the totals of an order.
+     * @param totalBeforeDiscounts sum of the lines in EUR.
+     * @param discounts client discounts applied, in order.
+     * @param total price after applying the client discounts in EUR.
+     */
+    void renderTotals(double totalBeforeDiscounts, List<DiscountStep> discounts, double total);
+
+    /**
+     * Present a whole receipt.
+     * @param receipt to be presented.
+     */
+    default void render(Receipt receipt) {
+        for (ReceiptLine line : receipt.getLines()) {
+            renderLine(line);
+        }
+        renderTotals(receipt.getTotalBeforeDiscounts(), receipt.getDiscounts(), receipt.getTotal());
+    }
+
+    /**
+     * Write any buffered output.
+     */
+    default void flush() {
+    }
+
+    /**
+     * @return the renderer that prints to the standard output, shared by all clients.
+     */
+    static ReceiptRenderer console() {
+        return TextReceiptRenderer.CONSOLE;
+    }
+
+    /**
+     * @param writer to which the receipts are written. Output is only guaranteed to reach
+     *               the writer after {@link #flush()}.
+     * @return a renderer that writes text through a buffer.
+     */
+    static ReceiptRenderer writer(Writer writer) {
+        return new TextReceiptRenderer(new PrintWriter(new BufferedWriter(writer)));
+    }
+}
@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live sales aggregates over all orders that are recorded: units and revenue per product,
+ * revenue per client, the number of orders per volume discount tier and the revenue of
+ * recent time windows.
+ * <p>
+ * Every aggregate is a {@link LongAdder}, which spreads concurrent updates over per-thread
+ * cells and only merges them when it is read, so recording orders from many threads never
+ * contends on a single counter. Reads are not a snapshot of a single instant.
+ */
+public class SalesRollup {
+    /**
+     * Number of time buckets that are kept by default.
+     */
+    public static final int DEFAULT_BUCKETS = 300;
+
+    /**
+     * Width of a time bucket in milliseconds by default.
+     */
+    public static final long DEFAULT_BUCKET_MILLIS = 1000;
+
+    /**
+     * Units and revenue of a product.
+     */
+    private static final class ProductCounters {
+        final LongAdder units = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+    }
+
+    /**
+     * Orders and revenue of a time bucket.
+     */
+    private static final class Bucket {
+        final long epoch;
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private final ConcurrentHashMap<String, ProductCounters> products = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, LongAdder> clients = new ConcurrentHashMap<>();
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder ordersAbove10k = new LongAdder();
+    private final LongAdder ordersAbove30k = new LongAdder();
+    private final LongAdder revenueCents = new LongAdder();
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Create a roll-up that keeps the last 5 minutes per second.
+     */
+    public SalesRollup() {
+        this(DEFAULT_BUCKETS, DEFAULT_BUCKET_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new roll-up.
+     * @param bucketCount number of time buckets that are kept, at least 1.
+     * @param bucketMillis width of a time bucket in milliseconds, at least 1.
+     * @param clock current time in milliseconds.
+     */
+    public SalesRollup(int bucketCount, long bucketMillis, LongSupplier clock) {
+        if (bucketCount < 1 || bucketMillis < 1) {
+            throw new IllegalArgumentException("Need at least one time bucket of at least 1 ms");
+        }
+        buckets = new AtomicReferenceArray<>(bucketCount);
+        this.bucketMillis = bucketMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Add a priced order to the aggregates.
+     * @param receipt of the order.
+     */
+    public void record(Receipt receipt) {
+        for (ReceiptLine line : receipt.getLines()) {
+            ProductCounters counters = products.get(line.getSku());
+            if (counters == null) {
+                counters = products.computeIfAbsent(line.getSku(), sku -> new ProductCounters());
+            }
+            counters.units.add(line.getAmount());
+            counters.revenueCents.add(line.getTotalCents());
+        }
+        LongAdder client = clients.get(receipt.getClientId());
+        if (client == null) {
+            client = clients.computeIfAbsent(receipt.getClientId(), id -> new LongAdder());
+        }
+        client.add(receipt.getTotalCents());
+
+        orders.increment();
+        revenueCents.add(receipt.getTotalCents());
+        List<DiscountStep> discounts = receipt.getDiscounts();
+        DiscountStep.Kind tier = discounts.isEmpty() ? null : discounts.get(discounts.size() - 1).getKind();
+        if (tier == DiscountStep.Kind.ABOVE_10K) {
+            ordersAbove10k.increment();
+        } else if (tier == DiscountStep.Kind.ABOVE_30K) {
+            ordersAbove30k.increment();
+        }
+
+        Bucket bucket = currentBucket();
+        bucket.orders.increment();
+        bucket.revenueCents.add(receipt.getTotalCents());
+    }
+
+    /**
+     * Get the bucket of the current time, replacing the bucket of an older time in its slot.
+     * An order that is recorded just as its bucket expires may be lost from the time windows,
+     * but never from the other aggregates.
+     */
+    private Bucket currentBucket() {
+        long epoch = clock.getAsLong() / bucketMillis;
+        int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * @return the number of orders that were recorded.
+     */
+    public long getOrders() {
+        return orders.sum();
+    }
+
+    public long getOrdersAbove10k() {
+        return ordersAbove10k.sum();
+    }
+
+    public long getOrdersAbove30k() {
+        return ordersAbove30k.sum();
+    }
+
+    /**
+     * @return the sum of the totals of all orders after client discounts in cents.
+     */
+    public long getRevenueCents() {
+        return revenueCents.sum();
+    }
+
+    /**
+     * @param sku of the product.
+     * @return the units and revenue of the product, zero if it was never sold.
+     */
+    public ProductSales getProductSales(String sku) {
+        ProductCounters counters = products.get(sku);
+        return counters == null ? new ProductSales(sku, 0, 0)
+                : new ProductSales(sku, counters.units.sum(), counters.revenueCents.sum());
+    }
+
+    /**
+     * @param productId id of a product with a single-character SKU.
+     * @return the units and revenue of the product, zero if it was never sold.
+     */
+    public ProductSales getProductSales(char productId) {
+        return getProductSales(String.valueOf(productId));
+    }
+
+    /**
+     * @param clientId id of the client.
+     * @return the sum of the totals of the orders of the client after client discounts in cents.
+     */
+    public long getClientRevenueCents(int clientId) {
+        LongAdder client = clients.get(clientId);
+        return client == null ? 0 : client.sum();
+    }
+
+    /**
+     * Get the products with the highest revenue.
+     * @param n maximum number of products.
+     * @return the products, highest revenue first.
+     */
+    public List<ProductSales> getTopProductsByRevenue(int n) {
+        return getTopProducts(n, Comparator.comparingLong(ProductSales::getRevenueCents));
+    }
+
+    /**
+     * Get the products of which the most units were sold.
+     * @param n maximum number of products.
+     * @return the products, most units first.
+     */
+    public List<ProductSales> getTopProductsByUnits(int n) {
+        return getTopProducts(n, Comparator.comparingLong(ProductSales::getUnits));
+    }
+
+    private List<ProductSales> getTopProducts(int n, Comparator<ProductSales> order) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Cannot get a negative number of products");
+        }
+        // Keep the best n in a heap with the worst of them on top, ties broken by SKU.
+        Comparator<ProductSales> comparator = order.thenComparing(ProductSales::getSku, Comparator.reverseOrder());
+        PriorityQueue<ProductSales> top = new PriorityQueue<>(n + 1, comparator);
+        products.forEach((sku, counters) -> {
+            top.add(new ProductSales(sku, counters.units.sum(), counters.revenueCents.sum()));
+            if (top.size() > n) {
+                top.poll();
+            }
+        });
+        List<ProductSales> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Get the revenue of the most recent time window, including the current time bucket.
+     * @param windowMillis length of the window in milliseconds, rounded up to whole buckets.
+     * @return the sum of the totals of the orders in the window after client discounts in cents.
+     */
+    public long getWindowRevenueCents(long windowMillis) {
+        long sum = 0;
+        for (Bucket bucket : getWindowBuckets(windowMillis)) {
+            sum += bucket.revenueCents.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Get the number of orders of the most recent time window, including the current time bucket.
+     * @param windowMillis length of the window in milliseconds, rounded up to whole buckets.
+     * @return the number of orders in the window.
+     */
+    public long getWindowOrders(long windowMillis) {
+        long sum = 0;
+        for (Bucket bucket : getWindowBuckets(windowMillis)) {
+            sum += bucket.orders.sum();
+        }
+        return sum;
+    }
+
+    private List<Bucket> getWindowBuckets(long windowMillis) {
+        long count = (windowMillis + bucketMillis - 1) / bucketMillis;
+        if (windowMillis < 0 || count > buckets.length()) {
+            throw new IllegalArgumentException("Window needs to be between 0 and " + buckets.length() * bucketMillis + " ms");
+        }
+        long epoch = clock.getAsLong() / bucketMillis;
+        List<Bucket> window = new ArrayList<>((int) count);
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch <= epoch && bucket.epoch > epoch - count) {
+                window.add(bucket);
+            }
+        }
+        return window;
+    }
+}
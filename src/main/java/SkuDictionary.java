@@ -0,0 +1,186 @@
+/**
+ * Dictionary of product SKUs. Every SKU is interned once and gets a dense {@code int}
+ * ordinal, in the order in which the SKUs were first seen; ordinals are never reused, so
+ * they can index plain arrays for as long as the dictionary lives.
+ * <p>
+ * The SKUs are kept in an open-addressing table of two parallel arrays, without node
+ * objects or boxed ordinals. Interning is serialized, lookups do not lock.
+ */
+public class SkuDictionary {
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * SKUs and their entries, of the same length. An entry holds the hash of the SKU in its
+     * upper half, so probes skip other SKUs without reading them, and the ordinal plus one
+     * in its lower half. An empty entry next to a SKU means that a lookup raced with the
+     * interning of that SKU.
+     */
+    private static final class Table {
+        final String[] keys;
+        final long[] entries;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            entries = new long[capacity];
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile String[] skus = new String[MIN_CAPACITY];
+    private volatile int size;
+
+    /**
+     * Spread the bits of the hash code, as consecutive SKUs such as "SKU-0001" and "SKU-0002"
+     * have consecutive hash codes.
+     */
+    private static int hash(String sku) {
+        int h = sku.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Get the ordinal of a SKU, interning it if it is new.
+     * @param sku to be interned, not empty.
+     * @return the ordinal of the SKU.
+     */
+    public synchronized int intern(String sku) {
+        if (sku == null || sku.isEmpty()) {
+            throw new IllegalArgumentException("SKU cannot be empty");
+        }
+        int ordinal = find(table, sku);
+        if (ordinal >= 0) {
+            return ordinal;
+        }
+        ordinal = size;
+        if ((ordinal + 1) * 4L > table.keys.length * 3L) {
+            resize(table.keys.length * 2);
+        }
+        String[] bySku = skus;
+        if (ordinal == bySku.length) {
+            bySku = java.util.Arrays.copyOf(bySku, bySku.length * 2);
+        }
+        bySku[ordinal] = sku;
+        skus = bySku;
+
+        Table t = table;
+        int hash = hash(sku);
+        int mask = t.keys.length - 1;
+        int i = hash & mask;
+        while (t.keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        t.entries[i] = entry(hash, ordinal);
+        t.keys[i] = sku;
+        size = ordinal + 1;
+        return ordinal;
+    }
+
+    /**
+     * Look up the ordinal of a SKU without interning it.
+     * @param sku to be looked up.
+     * @return the ordinal of the SKU, or -1 if it was never interned.
+     */
+    public int lookup(String sku) {
+        int ordinal = find(table, sku);
+        if (ordinal == Integer.MIN_VALUE) {
+            synchronized (this) {
+                return find(table, sku);
+            }
+        }
+        return ordinal;
+    }
+
+    /**
+     * Probe a table for a SKU.
+     * @return the ordinal, -1 if the SKU is missing or {@link Integer#MIN_VALUE} if it is being interned.
+     */
+    private static int find(Table t, String sku) {
+        int hash = hash(sku);
+        int mask = t.keys.length - 1;
+        int i = hash & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long entry = t.entries[i];
+            if (entry == 0 || (int) (entry >>> 32) == hash) {
+                // Without a lock, the entry and the SKU of a slot may be seen one without the other.
+                String key = t.keys[i];
+                if (key == null) {
+                    return entry == 0 ? -1 : Integer.MIN_VALUE;
+                }
+                if (key.equals(sku)) {
+                    return entry == 0 ? Integer.MIN_VALUE : (int) entry - 1;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static long entry(int hash, int ordinal) {
+        return (long) hash << 32 | (ordinal + 1);
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table t = new Table(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.keys.length; j++) {
+            if (old.keys[j] != null) {
+                int i = (int) (old.entries[j] >>> 32) & mask;
+                while (t.keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                t.keys[i] = old.keys[j];
+                t.entries[i] = old.entries[j];
+            }
+        }
+        table = t;
+    }
+
+    /**
+     * @param ordinal of an interned SKU.
+     * @return the SKU.
+     */
+    public String getSku(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IllegalArgumentException("No SKU with ordinal " + ordinal);
+        }
+        return skus[ordinal];
+    }
+
+    /**
+     * @return the number of interned SKUs, which is also the next ordinal.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimate the memory used by the dictionary itself, without the SKU strings, assuming
+     * compressed references: an object header of 12 bytes, 4 bytes per reference and 8-byte alignment.
+     * @return the estimated size in bytes.
+     */
+    public long estimateBytes() {
+        int capacity = table.keys.length;
+        return align(12 + 4 * 3) + align(12 + 4 * 2) + align(16 + 4L * capacity) + align(16 + 8L * capacity)
+                + align(16 + 4L * skus.length);
+    }
+
+    /**
+     * Estimate the memory used by a {@code HashMap<String, Integer>} from SKUs to ordinals
+     * of the same size plus a list of the SKUs by ordinal, without the SKU strings, under the
+     * same assumptions as {@link #estimateBytes()}.
+     * @param size number of SKUs.
+     * @return the estimated size in bytes.
+     */
+    public static long estimateHashMapBytes(int size) {
+        long capacity = Math.max(16, Long.highestOneBit(Math.max(1, size * 4L / 3)) * 2);
+        long node = align(12 + 4 + 4 + 4 + 4);
+        long integer = align(12 + 4);
+        return align(12 + 4 * 6 + 4 * 2) + align(16 + 4 * capacity) + size * (node + integer)
+                + align(12 + 4 * 2) + align(16 + 4L * size);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
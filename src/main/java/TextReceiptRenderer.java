@@ -0,0 +1,48 @@
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Renderer that writes receipts as human-readable text.
+ */
+public class TextReceiptRenderer implements ReceiptRenderer {
+    static final TextReceiptRenderer CONSOLE = new TextReceiptRenderer(new PrintWriter(System.out, true));
+
+    private final PrintWriter out;
+
+    /**
+     * Create a new text renderer.
+     * @param out to which the text is written.
+     */
+    public TextReceiptRenderer(PrintWriter out) {
+        this.out = out;
+    }
+
+    @Override
+    public void renderLine(ReceiptLine line) {
+        out.println("Product: " + line.getSku());
+        out.println("Amount: " + line.getAmount());
+        out.println("Unit price: " + line.getUnitPrice());
+        if (line.isPromotional()) {
+            out.println("Mean promotional unit price: " + line.getMeanPromotionalUnitPrice());
+        }
+        out.println("Total: " + line.getTotal() + '\n');
+    }
+
+    @Override
+    public void renderTotals(double totalBeforeDiscounts, List<DiscountStep> discounts, double total) {
+        out.println("Total price before client discounts: " + totalBeforeDiscounts + " EUR.");
+        for (DiscountStep step : discounts) {
+            switch (step.getKind()) {
+                case BASIC -> out.println("Total price after " + step.getDiscount() + "% client discount: " + step.getTotalAfter() + " EUR");
+                case ABOVE_10K -> out.println("Total price after " + step.getDiscount() + "% client discount for spending above 10 000 EUR: " + step.getTotalAfter() + " EUR");
+                case ABOVE_30K -> out.println("Total price after " + step.getDiscount() + "% client discount for spending above 30 000 EUR: " + step.getTotalAfter() + " EUR");
+            }
+        }
+        out.println("Total price: " + total + " EUR");
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.function.Consumer;
+
+/**
+ * Product catalog that is changed copy-on-write. Readers take the current
+ * {@link CatalogVersion} with a single volatile read and never lock; writers build
+ * the next version from a copy of the current one and publish it atomically.
+ */
+public class VersionedCatalog {
+    private volatile CatalogVersion current;
+
+    /**
+     * Create a catalog with copies of the products of a collection as its first version.
+     * @param products of the first version.
+     */
+    public VersionedCatalog(ProductCollection products) {
+        current = CatalogVersion.copyOf(1, products);
+    }
+
+    /**
+     * @return the current version of the catalog.
+     */
+    public CatalogVersion current() {
+        return current;
+    }
+
+    /**
+     * Change the catalog and publish the result as a new version. The change is applied to
+     * a collection with copies of the products of the current version; it may add, remove
+     * and change products, but must not keep references to them. If the change fails,
+     * nothing is published.
+     * @param change applied to the copy of the catalog.
+     * @return the published version.
+     */
+    public synchronized CatalogVersion update(Consumer<ProductCollection> change) {
+        CatalogVersion base = current;
+        ProductCollection products = new ProductCollection();
+        for (Product product : base.getOrderedProducts()) {
+            products.add(new Product(product));
+        }
+        change.accept(products);
+        CatalogVersion next = new CatalogVersion(base.getVersion() + 1, products.getProducts().toArray(new Product[0]));
+        current = next;
+        return next;
+    }
+}
@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBatchOrderProcessor {
+    private static OrderPricer createPricer() {
+        return new OrderPricer(Main.createProducts(), Main.createClients());
+    }
+
+    private static String process(String orders, int workers) throws IOException {
+        StringWriter out = new StringWriter();
+        new BatchOrderProcessor(createPricer(), workers).process(new BufferedReader(new StringReader(orders)), "orders", out);
+        return out.toString();
+    }
+
+    @Test
+    public void testReceipt() throws IOException {
+        String out = process("# client amounts\n\n1 10 0 30\n", 2);
+        String separator = "--------------------------------" + System.lineSeparator();
+        assertTrue(out.startsWith(separator + "SUMMARY ORDER CLIENT 1" + System.lineSeparator() + separator + "\n"));
+        assertTrue(out.contains("Product: A"));
+        assertFalse(out.contains("Product: B"));
+        assertTrue(out.endsWith("Total price: " + createPricer().price(new OrderRequest(1, 10, 0, 30)).getTotal()
+                + " EUR" + System.lineSeparator() + separator));
+    }
+
+    @Test
+    public void testInputOrder() throws IOException {
+        StringBuilder orders = new StringBuilder();
+        long expected = 0;
+        OrderPricer pricer = createPricer();
+        for (int i = 0; i < 5 * BatchOrderProcessor.CHUNK_SIZE + 3; i++) {
+            orders.append(1 + i % 5).append(' ').append(i).append(' ').append(i * 7 % 1000).append(" 3 ").append(i % 11).append('\n');
+            expected += pricer.price(new OrderRequest(1 + i % 5, i, i * 7 % 1000, 3, i % 11)).getTotalCents();
+        }
+        String sequential = process(orders.toString(), 1);
+        assertEquals(sequential, process(orders.toString(), 4));
+
+        OrderFileProcessor.Result result = new BatchOrderProcessor(pricer, 3)
+                .process(new BufferedReader(new StringReader(orders.toString())), "orders", Writer.nullWriter());
+        assertEquals(5 * BatchOrderProcessor.CHUNK_SIZE + 3, result.getOrders());
+        assertEquals(expected, result.getTotalCents());
+    }
+
+    @Test
+    public void testInvalidLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> process("1 1 2\n1 x\n", 2));
+        assertTrue(e.getMessage().startsWith("orders:2: "));
+        assertThrows(IllegalArgumentException.class, () -> process("1 1 2 3 4 5\n", 2));
+        assertThrows(IllegalArgumentException.class, () -> new BatchOrderProcessor(createPricer(), 0));
+    }
+}
@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCatalogLoader {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testParseProduct() {
+        Product product = CatalogLoader.parseProduct("D,0.60,1 EUR/unit,Buy 2, get 3rd free");
+        assertEquals('D', product.getId());
+        assertEquals(0.6, product.getUnitCost());
+        assertEquals("1 EUR/unit", product.getMarkup());
+        assertEquals("Buy 2, get 3rd free", product.getProductPromotion());
+        assertEquals(3.2, product.checkTotalPrice(3));
+
+        product = CatalogLoader.parseProduct("B,0.38,120%,30% off");
+        assertEquals("120%", product.getMarkup());
+        assertEquals("30% off", product.getProductPromotion());
+        assertEquals(new Product('B', 0.38, "120%", "30% off").checkTotalPrice(123), product.checkTotalPrice(123));
+
+        assertNull(CatalogLoader.parseProduct("A,0.52,80%").getPromotion());
+        assertNull(CatalogLoader.parseProduct("A,0.52,80%,").getPromotion());
+
+        product = CatalogLoader.parseProduct("BEER-LAGER-33CL,0.52,80%");
+        assertEquals("BEER-LAGER-33CL", product.getSku());
+        assertFalse(product.hasCharId());
+        assertEquals(new Product('A', 0.52, "80%").checkTotalPriceCents(3), product.checkTotalPriceCents(3));
+    }
+
+    @Test
+    public void testParseInvalidProduct() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseProduct(",0.52,80%"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseProduct("A,-5,80%"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseProduct("A,0.52"));
+        // The CSV loader accepts the same promotions as Product does.
+        for (String promotion : new String[]{"Buy 2.5, get 3rd free", "Buy 2, get 3rd free!", "Buy , get 1st free", "Buy 0, get 1st free"}) {
+            assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseProduct("A,0.52,80%," + promotion), promotion);
+            assertThrows(IllegalArgumentException.class, () -> new Product('A', 0.52, "80%", promotion), promotion);
+        }
+        assertEquals(9, ((BuyNGetOnePromotion) CatalogLoader.parseProduct("A,0.52,80%,Buy 9, get 10th free").getPromotion()).getPaidUnits());
+        // Only x counts, the number of the free unit is not checked, in both paths.
+        assertEquals(2, ((BuyNGetOnePromotion) CatalogLoader.parseProduct("A,0.52,80%,Buy 2, get 5th free").getPromotion()).getPaidUnits());
+        assertEquals(2, ((BuyNGetOnePromotion) new Product('A', 0.52, "80%", "Buy 2, get 5th free").getPromotion()).getPaidUnits());
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseProduct("A,0.52,80"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseProduct("A,0.52,80%,wrongly formatted promotion"));
+    }
+
+    @Test
+    public void testParseClient() {
+        Client client = CatalogLoader.parseClient("12,5%,0.5%,2%");
+        assertEquals(12, client.getId());
+        assertEquals(5, client.getBasicClientDiscount());
+        assertEquals(0.5, client.getAdditionalVolumeDiscountAbove10k());
+        assertEquals(2, client.getAdditionalVolumeDiscountAbove30k());
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseClient("1,5%,0%"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogLoader.parseClient("1,105%,0%,0%"));
+        for (String id : new String[]{"1.5", ".", "", "-", "+1", "1e3", "2147483648"}) {
+            assertThrows(NumberFormatException.class, () -> CatalogLoader.parseClient(id + ",5%,0%,2%"), id);
+        }
+        assertEquals(-7, CatalogLoader.parseClient("-7,5%,0%,2%").getId());
+        assertEquals(Integer.MAX_VALUE, CatalogLoader.parseClient("2147483647,5%,0%,2%").getId());
+    }
+
+    @Test
+    public void testLoadAndSnapshot() throws IOException {
+        Path productFile = dir.resolve("products.csv");
+        Path clientFile = dir.resolve("clients.csv");
+        Files.write(productFile, List.of("# id,unitCost,markup,promotion", "A,0.52,80%", "B,0.38,120%,30% off", "", "C,0.41,0.9 EUR/unit", "D,0.60,1 EUR/unit,Buy 2, get 3rd free"));
+        Files.write(clientFile, List.of("1,5%,0%,2%", "2,4%,1%,2%"));
+
+        ProductCollection products = new ProductCollection();
+        ClientCollection clients = new ClientCollection();
+        assertEquals(4, CatalogLoader.loadProducts(productFile, products));
+        assertEquals(2, CatalogLoader.loadClients(clientFile, clients));
+
+        Path snapshot = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(snapshot, products, clients);
+        ProductCollection loadedProducts = new ProductCollection();
+        ClientCollection loadedClients = new ClientCollection();
+        CatalogSnapshot.load(snapshot, loadedProducts, loadedClients);
+
+        assertEquals(4, loadedProducts.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(products.get(i).getId(), loadedProducts.get(i).getId());
+            assertEquals(products.get(i).getMarkup(), loadedProducts.get(i).getMarkup());
+            assertEquals(products.get(i).getProductPromotion(), loadedProducts.get(i).getProductPromotion());
+            assertEquals(products.get(i).checkTotalPrice(1000), loadedProducts.get(i).checkTotalPrice(1000));
+        }
+        assertEquals(2, loadedClients.size());
+        assertEquals(4, loadedClients.get(2).getBasicClientDiscount());
+        assertEquals(1, loadedClients.get(2).getAdditionalVolumeDiscountAbove10k());
+
+        // The snapshot stores SKUs, so wide SKUs round-trip as well.
+        products.add(new Product("BEER-LAGER-33CL", 0.52, "80%", "Buy 5, get 6th free"));
+        CatalogSnapshot.write(snapshot, products, clients);
+        loadedProducts = new ProductCollection();
+        CatalogSnapshot.load(snapshot, loadedProducts, new ClientCollection());
+        assertEquals(5, loadedProducts.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(products.get(i).getSku(), loadedProducts.get(i).getSku());
+            assertEquals(products.get(i).checkTotalPrice(1000), loadedProducts.get(i).checkTotalPrice(1000));
+        }
+        assertEquals("BEER-LAGER-33CL", loadedProducts.get(2).getSku());
+        assertEquals("Buy 5, get 6th free", loadedProducts.get(2).getProductPromotion());
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws IOException {
+        Path snapshot = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(snapshot, Main.createProducts(), Main.createClients());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(snapshot, Arrays.copyOf(bytes, length));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> CatalogSnapshot.load(snapshot, new ProductCollection(), new ClientCollection()), "length " + length);
+            assertTrue(e.getMessage().startsWith(snapshot.toString()), e.getMessage());
+        }
+        // A count that cannot fit in the file is rejected before anything is read.
+        bytes[8] = 0x7f;
+        Files.write(snapshot, bytes);
+        assertThrows(IllegalArgumentException.class, () -> CatalogSnapshot.load(snapshot, new ProductCollection(), new ClientCollection()));
+    }
+
+    @Test
+    public void testLoadReportsLine() throws IOException {
+        Path productFile = dir.resolve("products.csv");
+        Files.write(productFile, List.of("A,0.52,80%", "B,0.38,wrong"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CatalogLoader.loadProducts(productFile, new ProductCollection()));
+        assertTrue(e.getMessage().contains(":2:"));
+    }
+}
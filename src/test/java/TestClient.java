@@ -52,4 +52,30 @@ public class TestClient {
         client.addToOrder(new Product('A', 1, "0%"), 35000);
         assertEquals(0.97 * 0.95 * 1 * 35000, client.finishOrder());
     }
+
+    @Test
+    public void testRunningTotals() {
+        Client client = new Client(1, "5%", "2%", "3%");
+        client.setRenderer(ReceiptRenderer.NONE);
+        Product product = new Product('A', 1, "0%");
+        assertNull(client.getVolumeTier());
+
+        client.addToOrder(product, 10000);
+        assertEquals(10000_00, client.getOrderTotalCents());
+        // 10 000 EUR is below the threshold after the basic discount.
+        assertNull(client.getVolumeTier());
+        assertEquals(9500, client.getProjectedTotal());
+
+        client.addToOrder(product, 30000);
+        assertEquals(DiscountStep.Kind.ABOVE_30K, client.getVolumeTier());
+        assertEquals(0.97 * 0.95 * 40000, client.getProjectedTotal(), 0.005);
+
+        client.adjustOrder(product, 30000, 5000);
+        assertEquals(DiscountStep.Kind.ABOVE_10K, client.getVolumeTier());
+        client.removeFromOrder(product, 5000);
+        assertEquals(10000_00, client.getOrderTotalCents());
+        assertThrows(IllegalArgumentException.class, () -> client.removeFromOrder(product, 20000));
+        assertEquals(10000_00, client.getOrderTotalCents());
+        assertEquals(client.getProjectedTotal(), client.finishOrder());
+    }
 }
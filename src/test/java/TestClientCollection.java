@@ -36,4 +36,20 @@ public class TestClientCollection {
         assertNull(clientCollection.get(client.getId()));
     }
 
+    @Test
+    public void testManyClients() {
+        ClientCollection clientCollection = new ClientCollection();
+        for (int id = -1000; id < 100000; id++) {
+            clientCollection.add(new Client(id, "0%", "1%", "2%"));
+        }
+        for (int id = 0; id < 100000; id += 2) {
+            clientCollection.remove(id);
+        }
+        assertEquals(51000, clientCollection.size());
+        assertNull(clientCollection.get(50000));
+        assertEquals(50001, clientCollection.get(50001).getId());
+        assertEquals(-1000, clientCollection.get(-1000).getId());
+        assertEquals(51000, clientCollection.getClients().size());
+        assertTrue(clientCollection.getFootprintReport().startsWith("51000 clients: "));
+    }
 }
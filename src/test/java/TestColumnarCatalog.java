@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestColumnarCatalog {
+    private ProductCollection createProducts() {
+        ProductCollection productCollection = new ProductCollection();
+        productCollection.add(new Product('A', 0.52, "80%"));
+        productCollection.add(new Product('B', 0.38, "120%", "30% off"));
+        productCollection.add(new Product('C', 0.41, "0.9 EUR/unit"));
+        productCollection.add(new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free"));
+        return productCollection;
+    }
+
+    @Test
+    public void testSamePricesAsProducts() {
+        ProductCollection products = createProducts();
+        products.add(new Product("BEER-LAGER-33CL", 0.52, "80%", "Buy 5, get 6th free"));
+        ColumnarCatalog catalog = new ColumnarCatalog(products);
+        assertEquals(5, catalog.size());
+        for (int i = 0; i < catalog.size(); i++) {
+            assertEquals(products.get(i).getSku(), catalog.getSku(i));
+            assertEquals(products.get(i).getSku(), catalog.getProduct(i).getSku());
+            assertEquals(products.get(i).getUnitPriceWithMarkupCents(), catalog.getUnitPriceCents(i));
+            for (int amount : new int[]{0, 1, 2, 3, 7, 1000, 123457}) {
+                assertEquals(products.get(i).checkTotalPriceCents(amount), catalog.checkTotalPriceCents(i, amount));
+            }
+            assertEquals(products.get(i).getMarkup(), catalog.getProduct(i).getMarkup());
+            assertEquals(products.get(i).getProductPromotion(), catalog.getProduct(i).getProductPromotion());
+        }
+        assertThrows(IllegalArgumentException.class, () -> catalog.checkTotalPriceCents(0, -1));
+        assertEquals('A', catalog.getId(0));
+        // The SKUs sort as strings, so the wide SKU comes right after B.
+        assertEquals("BEER-LAGER-33CL", catalog.getSku(2));
+        assertThrows(IllegalStateException.class, () -> catalog.getId(2));
+    }
+
+    @Test
+    public void testBulkPricing() {
+        ProductCollection products = createProducts();
+        ColumnarCatalog catalog = new ColumnarCatalog(products);
+        int[] amounts = {10, 20, 30, 40};
+        long[] totals = new long[4];
+        long expected = 0;
+        for (int i = 0; i < 4; i++) {
+            expected += products.get(i).checkTotalPriceCents(amounts[i]);
+        }
+        assertEquals(expected, catalog.checkTotalPricesCents(amounts, totals));
+        assertEquals(products.get(3).checkTotalPriceCents(40), totals[3]);
+    }
+
+    @Test
+    public void testRepriceUnitCosts() {
+        ProductCollection products = createProducts();
+        ColumnarCatalog catalog = new ColumnarCatalog(products);
+        catalog.repriceUnitCosts(cost -> cost * 2);
+        for (int i = 0; i < catalog.size(); i++) {
+            Product product = products.get(i);
+            product.setUnitCost(product.getUnitCost() * 2);
+            assertEquals(product.getUnitPriceWithMarkupCents(), catalog.getUnitPriceCents(i));
+            assertEquals(product.checkTotalPriceCents(99), catalog.checkTotalPriceCents(i, 99));
+        }
+        assertThrows(IllegalArgumentException.class, () -> catalog.repriceUnitCosts(cost -> 0));
+    }
+
+    @Test
+    public void testProductView() {
+        ProductCollection products = createProducts();
+        ColumnarCatalog catalog = new ColumnarCatalog(products);
+        Product view = catalog.getProduct(3);
+        Product copy = new Product(view);
+
+        // The view sees changes of the columns.
+        catalog.repriceUnitCosts(cost -> cost * 2);
+        assertEquals(120, view.getUnitCostCents());
+        assertEquals(catalog.getUnitPriceCents(3), view.getUnitPriceWithMarkupCents());
+        assertEquals(catalog.checkTotalPriceCents(3, 7), view.checkTotalPriceCents(7));
+        assertEquals(60, copy.getUnitCostCents());
+
+        // Changes of the view are written to the columns.
+        view.setUnitCost(1);
+        view.setMarkup("50%");
+        view.setProductPromotion("10% off");
+        Product expected = new Product('D', 1, "50%", "10% off");
+        assertEquals(100, catalog.getUnitCostCents(3));
+        assertEquals(expected.getUnitPriceWithMarkupCents(), catalog.getUnitPriceCents(3));
+        assertEquals(expected.checkTotalPriceCents(9), catalog.checkTotalPriceCents(3, 9));
+        assertEquals("50%", catalog.getProduct(3).getMarkup());
+        assertEquals("10% off", catalog.getProduct(3).getProductPromotion());
+        view.setProductPromotion(null);
+        assertNull(view.getPromotion());
+        assertEquals(900, catalog.checkTotalPriceCents(3, 6));
+
+        // A copy of a view has the current values and is no longer connected.
+        Product detached = new Product(view);
+        view.setUnitCost(2);
+        assertEquals(expected.getUnitPriceWithMarkupCents(), detached.getUnitPriceWithMarkupCents());
+        assertEquals("50%", detached.getMarkup());
+        assertThrows(IllegalArgumentException.class, () -> view.setUnitCost(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.setPriceCache(new PriceCache()));
+    }
+}
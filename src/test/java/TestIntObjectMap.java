@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIntObjectMap {
+    @Test
+    public void testPutGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull(map.putIfAbsent(0, "zero"));
+        assertNull(map.putIfAbsent(-1, "minus one"));
+        assertEquals("zero", map.putIfAbsent(0, "other"));
+        assertEquals("zero", map.get(0));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(1));
+        assertEquals(2, map.size());
+        assertEquals("zero", map.remove(0));
+        assertNull(map.remove(0));
+        assertNull(map.get(0));
+        assertEquals(1, map.size());
+        assertThrows(NullPointerException.class, () -> map.putIfAbsent(1, null));
+    }
+
+    @Test
+    public void testSameAsHashMap() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> reference = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000) * (random.nextBoolean() ? 1 : 1024);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key));
+            } else {
+                assertEquals(reference.putIfAbsent(key, i), map.putIfAbsent(key, i));
+            }
+        }
+        assertEquals(reference.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(reference.size(), map.values().size());
+    }
+
+    @Test
+    public void testFootprint() {
+        IntObjectMap<Object> map = new IntObjectMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            map.putIfAbsent(i, map);
+        }
+        assertTrue(map.estimateBytes() < IntObjectMap.estimateHashMapBytes(map.size()));
+    }
+}
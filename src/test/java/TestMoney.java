@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMoney {
+    @Test
+    public void testParseScaled() {
+        assertEquals(8000, Money.parseScaled("80", 2));
+        assertEquals(90, Money.parseScaled("0.9", 2));
+        assertEquals(42, Money.parseScaled("0.415", 2));
+        assertEquals(41, Money.parseScaled("0.4149", 2));
+        assertEquals(-500, Money.parseScaled("-5", 2));
+        assertEquals(500, Money.parseScaled("5%", 0, 1, 2));
+        assertThrows(NumberFormatException.class, () -> Money.parseScaled("5 EUR", 2));
+        assertThrows(NumberFormatException.class, () -> Money.parseScaled("", 2));
+    }
+
+    @Test
+    public void testFormatScaled() {
+        assertEquals("80", Money.formatScaled(8000, 2));
+        assertEquals("0.9", Money.formatScaled(90, 2));
+        assertEquals("0.05", Money.formatScaled(5, 2));
+        assertEquals("-1.5", Money.formatScaled(-150, 2));
+        assertEquals("0", Money.formatScaled(0, 2));
+    }
+
+    @Test
+    public void testPercentOf() {
+        assertEquals(94, Money.percentOf(52, 18000));
+        assertEquals(693, Money.percentOf(700, 9900));
+        assertEquals(1, Money.percentOf(1, 5000));
+        assertEquals(0, Money.percentOf(1, 4999));
+        assertEquals(Money.percentOf(123_456 * 52L, 18000), Money.percentOf(123_456, 52, 18000));
+        assertEquals(1, Money.percentOf(1, 1, 5000));
+    }
+
+    @Test
+    public void testMulDivRoundLargeValues() {
+        assertEquals(Long.MAX_VALUE / 2, Money.mulDivRound(Long.MAX_VALUE / 2, 10000, 10000));
+        assertEquals(3 * (Long.MAX_VALUE / 4), Money.mulDivRound(Long.MAX_VALUE / 4, 3, 1));
+    }
+
+    @Test
+    public void testSumIsExact() {
+        long cents = 0;
+        double eur = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            cents += Money.toCents(0.1);
+            eur += 0.1;
+        }
+        assertEquals(100000.0, Money.toEur(cents));
+        assertNotEquals(100000.0, eur);
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOrderAccumulator {
+    private static final int THREADS = 8;
+    private static final int LINES_PER_THREAD = 10000;
+
+    /**
+     * Run a task many times on every thread at once. A failure on any thread, e.g. of an
+     * assertion, fails the test once all threads are done.
+     */
+    private void runConcurrently(Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < LINES_PER_THREAD; j++) {
+                        task.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error error) {
+                        throw error;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureInThreadFailsTest() {
+        AtomicInteger runs = new AtomicInteger();
+        assertThrows(AssertionError.class, () -> runConcurrently(() -> assertTrue(runs.incrementAndGet() < 100)));
+    }
+
+    @Test
+    public void testFinish() {
+        OrderAccumulator order = new Client(1, "1%", "2%", "3%").openOrder();
+        order.add(new Product('A', 1, "0%", "30% off"), 10);
+        assertEquals(1, order.getLineCount());
+        assertEquals(7, order.getTotalBeforeDiscounts());
+        assertEquals(0.99 * 0.7 * 10, order.finish());
+    }
+
+    @Test
+    public void testConcurrentAddNoLostUpdates() throws Exception {
+        Product product = new Product('A', 0.52, "80%");
+        OrderAccumulator order = new Client(1, "0%", "0%", "0%").openOrder();
+        runConcurrently(() -> order.add(product, 3));
+        assertEquals(THREADS * LINES_PER_THREAD, order.getLineCount());
+        assertEquals(THREADS * LINES_PER_THREAD * 282 / 100.0, order.getTotalBeforeDiscounts());
+    }
+
+    @Test
+    public void testConcurrentAddToOrderNoLostUpdates() throws Exception {
+        Product product = new Product('A', 0.52, "80%");
+        Client client = new Client(1, "0%", "0%", "0%");
+        client.setRenderer(ReceiptRenderer.NONE);
+        runConcurrently(() -> client.addToOrder(product, 3));
+        assertEquals(THREADS * LINES_PER_THREAD * 282 / 100.0, client.finishOrder());
+    }
+
+    @Test
+    public void testConcurrentClientCollection() throws Exception {
+        ClientCollection clients = new ClientCollection();
+        int[] next = {0};
+        Object lock = new Object();
+        runConcurrently(() -> {
+            int id;
+            synchronized (lock) {
+                id = next[0]++ % 1000;
+            }
+            try {
+                clients.add(new Client(id, "0%", "0%", "0%"));
+            } catch (IllegalArgumentException e) {
+                assertNotNull(clients.get(id));
+            }
+        });
+        for (int id = 0; id < 1000; id++) {
+            assertEquals(id, clients.get(id).getId());
+        }
+    }
+}
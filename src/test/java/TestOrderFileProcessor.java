@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOrderFileProcessor {
+    @TempDir
+    Path dir;
+
+    private OrderPricer createPricer() {
+        ProductCollection productCollection = new ProductCollection();
+        productCollection.add(new Product('A', 0.52, "80%"));
+        productCollection.add(new Product('B', 0.38, "120%", "30% off"));
+        productCollection.add(new Product('C', 0.41, "0.9 EUR/unit"));
+        productCollection.add(new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free"));
+        ClientCollection clientCollection = new ClientCollection();
+        clientCollection.add(new Client(1, "5%", "0%", "2%"));
+        clientCollection.add(new Client(2, "4%", "1%", "2%"));
+        return new OrderPricer(productCollection, clientCollection);
+    }
+
+    @Test
+    public void testSummary() throws IOException {
+        Path orders = dir.resolve("orders.txt");
+        Files.writeString(orders, "# client amounts\n1 10000 20000 0 5\n\n2\t1 2 3\r\n1 0 0 0 50000");
+        StringWriter out = new StringWriter();
+        OrderFileProcessor.Result result = new OrderFileProcessor(createPricer(), OrderFileProcessor.Output.SUMMARY).process(orders, out);
+
+        OrderPricer pricer = createPricer();
+        PricedOrder first = pricer.price(new OrderRequest(1, 10000, 20000, 0, 5));
+        PricedOrder second = pricer.price(new OrderRequest(2, 1, 2, 3));
+        PricedOrder third = pricer.price(new OrderRequest(1, 0, 0, 0, 50000));
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("1," + first.getTotalBeforeDiscountsCents() / 100 + "." + String.format("%02d", first.getTotalBeforeDiscountsCents() % 100)
+                + "," + first.getTotalCents() / 100 + "." + String.format("%02d", first.getTotalCents() % 100), lines[0]);
+        assertTrue(lines[1].startsWith("2,"));
+        assertEquals(3, result.getOrders());
+        assertEquals(first.getTotalCents() + second.getTotalCents() + third.getTotalCents(), result.getTotalCents());
+        assertTrue(result.getOrdersPerSecond() > 0);
+    }
+
+    @Test
+    public void testReceipts() throws IOException {
+        Path orders = dir.resolve("orders.txt");
+        Files.writeString(orders, "1 10 20 30 40\n");
+        StringWriter out = new StringWriter();
+        new OrderFileProcessor(createPricer(), OrderFileProcessor.Output.RECEIPTS).process(orders, out);
+        assertTrue(out.toString().startsWith("Product: A"));
+        assertTrue(out.toString().contains("Total price: "));
+    }
+
+    @Test
+    public void testManyOrdersAcrossBuffers() throws IOException {
+        Path orders = dir.resolve("orders.txt");
+        List<String> lines = new ArrayList<>();
+        long expected = 0;
+        OrderPricer pricer = createPricer();
+        for (int i = 0; i < 20000; i++) {
+            lines.add((1 + i % 2) + " " + i + " " + (i * 7 % 1000) + " 3 " + (i % 11));
+            expected += pricer.price(new OrderRequest(1 + i % 2, i, i * 7 % 1000, 3, i % 11)).getTotalCents();
+        }
+        Files.write(orders, lines);
+        OrderFileProcessor.Result result = new OrderFileProcessor(pricer, OrderFileProcessor.Output.SUMMARY).process(orders, Writer.nullWriter());
+        assertEquals(20000, result.getOrders());
+        assertEquals(expected, result.getTotalCents());
+    }
+
+    @Test
+    public void testInvalidLine() throws IOException {
+        Path orders = dir.resolve("orders.txt");
+        Files.writeString(orders, "1 1 2\n1 x\n");
+        OrderFileProcessor processor = new OrderFileProcessor(createPricer(), OrderFileProcessor.Output.SUMMARY);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> processor.process(orders, Writer.nullWriter()));
+        assertTrue(e.getMessage().contains(":2:"));
+        Files.writeString(orders, "3 1 2\n");
+        assertThrows(IllegalArgumentException.class, () -> processor.process(orders, Writer.nullWriter()));
+    }
+}
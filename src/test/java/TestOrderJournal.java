@@ -0,0 +1,244 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOrderJournal {
+    @TempDir
+    Path dir;
+
+    private static final OrderPricer PRICER = new OrderPricer(Main.createProducts(), Main.createClients());
+
+    private static Receipt order(int i) {
+        return PRICER.quote(new OrderRequest(1 + i % 5, i, i * 7 % 1000, 0, i % 11));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(order(20000));
+            journal.appendAll(List.of(order(1), order(2)));
+        }
+        List<Receipt> replayed = new ArrayList<>();
+        assertEquals(3, OrderJournal.replay(dir, replayed::add));
+        Receipt expected = order(20000);
+        Receipt first = replayed.get(0);
+        assertEquals(expected.getClientId(), first.getClientId());
+        assertEquals(expected.getTotalBeforeDiscountsCents(), first.getTotalBeforeDiscountsCents());
+        assertEquals(expected.getTotalCents(), first.getTotalCents());
+        assertEquals(expected.getLines().size(), first.getLines().size());
+        assertEquals(expected.getLines().get(1).getTotalCents(), first.getLines().get(1).getTotalCents());
+        assertEquals(expected.getLines().get(1).getUnitPriceCents(), first.getLines().get(1).getUnitPriceCents());
+        assertEquals(expected.getDiscounts().size(), first.getDiscounts().size());
+        assertEquals(expected.getDiscounts().get(1).getKind(), first.getDiscounts().get(1).getKind());
+        assertEquals(order(2).getTotalCents(), replayed.get(2).getTotalCents());
+
+        // Appending continues after the existing records.
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(order(3));
+        }
+        assertEquals(4, OrderJournal.recover(dir).getOrders());
+        assertEquals(0, OrderJournal.recover(dir.resolve("missing")).getOrders());
+    }
+
+    @Test
+    public void testGroupCommitAndRecovery() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        long[] expected = new long[6];
+        for (int i = 0; i < threads * perThread; i++) {
+            expected[order(i).getClientId()] += order(i).getTotalCents();
+        }
+        OrderJournal journal = OrderJournal.open(dir, 16 * 1024);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = first; i < first + perThread; i++) {
+                        journal.append(order(i));
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        journal.close();
+        assertTrue(journal.getCommits() <= threads * perThread);
+        assertTrue(journal.getSegmentCount() > 1);
+        assertEquals(journal.getSegmentCount(), segmentCount());
+        assertThrows(IllegalStateException.class, () -> journal.append(order(0)));
+
+        OrderJournal.Recovery recovery = OrderJournal.recover(dir);
+        assertEquals(threads * perThread, recovery.getOrders());
+        for (int client = 1; client <= 5; client++) {
+            assertEquals(expected[client], recovery.getClientTotalCents(client));
+        }
+        assertEquals(0, recovery.getClientTotalCents(6));
+    }
+
+    @Test
+    public void testTornWrite() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(order(1));
+            journal.append(order(2));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        assertEquals(1, OrderJournal.recover(dir).getOrders());
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(order(3));
+        }
+        OrderJournal.Recovery recovery = OrderJournal.recover(dir);
+        assertEquals(2, recovery.getOrders());
+        assertEquals(order(1).getTotalCents() + order(3).getTotalCents(),
+                recovery.getClientTotalCents(2) + recovery.getClientTotalCents(4));
+    }
+
+    @Test
+    public void testRestart() throws IOException {
+        StringBuilder orders = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            orders.append(1 + i % 5).append(' ').append(i).append(' ').append(i * 7 % 1000).append(" 0 ").append(i % 11).append('\n');
+        }
+        ClientCollection clients = Main.createClients();
+        try (OrderJournal journal = Main.openJournal(dir, clients)) {
+            new BatchOrderProcessor(new OrderPricer(Main.createProducts(), clients), 2, null, journal)
+                    .process(new BufferedReader(new StringReader(orders.toString())), "orders", Writer.nullWriter());
+        }
+
+        // A new process starts with the expenditure of the previous one and adds to it.
+        ClientCollection restarted = Main.createClients();
+        try (OrderJournal journal = Main.openJournal(dir, restarted)) {
+            for (int client = 1; client <= 5; client++) {
+                assertTrue(restarted.get(client).getOrderTotalCents() > 0);
+                assertEquals(clients.get(client).getOrderTotalCents(), restarted.get(client).getOrderTotalCents());
+            }
+            new BatchOrderProcessor(new OrderPricer(Main.createProducts(), restarted), 2, null, journal)
+                    .process(new BufferedReader(new StringReader(orders.toString())), "orders", Writer.nullWriter());
+        }
+        OrderJournal.Recovery recovery = OrderJournal.recover(dir);
+        assertEquals(100, recovery.getOrders());
+        for (int client = 1; client <= 5; client++) {
+            assertEquals(2 * clients.get(client).getOrderTotalCents(), restarted.get(client).getOrderTotalCents());
+            assertEquals(recovery.getClientTotalCents(client), restarted.get(client).getOrderTotalCents());
+        }
+    }
+
+    @Test
+    public void testWideSku() throws IOException {
+        Receipt receipt = Main.createClients().get(1).checkout(List.of(
+                new ReceiptLine(new Product("BEER-LAGER-33CL", 0.52, "80%"), 3),
+                new ReceiptLine(new Product('A', 0.52, "80%"), 2)));
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(receipt);
+            journal.append(order(1));
+        }
+        List<Receipt> replayed = new ArrayList<>();
+        assertEquals(2, OrderJournal.replay(dir, replayed::add));
+        List<ReceiptLine> lines = replayed.get(0).getLines();
+        assertEquals("BEER-LAGER-33CL", lines.get(0).getSku());
+        assertEquals(3, lines.get(0).getAmount());
+        assertEquals(receipt.getLines().get(0).getTotalCents(), lines.get(0).getTotalCents());
+        assertEquals('A', lines.get(1).getProductId());
+        assertEquals(receipt.getTotalCents(), replayed.get(0).getTotalCents());
+    }
+
+    @Test
+    public void testVersion1Segment() throws IOException {
+        // A segment of version 1 has a char id in each line.
+        ByteBuffer payload = ByteBuffer.allocate(4 + 8 + 8 + 2 + (2 + 4 + 8 + 8) + 1)
+                .putInt(3).putLong(200).putLong(200).putShort((short) 1)
+                .putChar('A').putInt(2).putLong(100).putLong(200).put((byte) 0).flip();
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        ByteBuffer segment = ByteBuffer.allocate(8 + 8 + payload.remaining())
+                .putInt(0x4f524a4e).putInt(1).putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload).flip();
+        Files.write(dir.resolve(String.format("journal-%020d.log", 0)), segment.array());
+
+        // New records go into a segment of the current version.
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            assertEquals(2, journal.getSegmentCount());
+            journal.append(order(1));
+        }
+        List<Receipt> replayed = new ArrayList<>();
+        assertEquals(2, OrderJournal.replay(dir, replayed::add));
+        assertEquals('A', replayed.get(0).getLines().get(0).getProductId());
+        assertEquals(200, replayed.get(0).getLines().get(0).getTotalCents());
+        assertEquals(order(1).getTotalCents(), replayed.get(1).getTotalCents());
+        assertEquals(200, OrderJournal.recover(dir).getClientTotalCents(3));
+    }
+
+    @Test
+    public void testShortLastSegment() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 200)) {
+            journal.append(order(1));
+            journal.append(order(2));
+            assertEquals(2, journal.getSegmentCount());
+        }
+        Path last;
+        try (Stream<Path> files = Files.list(dir).sorted()) {
+            last = files.reduce((first, second) -> second).orElseThrow();
+        }
+        // A crash right after a roll, before the header of the new segment was durable.
+        for (int size : new int[] {0, 3}) {
+            Files.write(last, new byte[size]);
+            assertEquals(1, OrderJournal.recover(dir).getOrders());
+            List<Receipt> replayed = new ArrayList<>();
+            assertEquals(1, OrderJournal.replay(dir, replayed::add));
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir, 200)) {
+            assertEquals(2, journal.getSegmentCount());
+            journal.append(order(3));
+        }
+        assertEquals(2, OrderJournal.recover(dir).getOrders());
+        assertEquals(2, segmentCount());
+    }
+
+    @Test
+    public void testCorruptSegment() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 200)) {
+            journal.append(order(1));
+            journal.append(order(2));
+        }
+        Path first;
+        try (Stream<Path> files = Files.list(dir).sorted()) {
+            first = files.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[20] ^= 1;
+        Files.write(first, bytes);
+        assertThrows(IllegalArgumentException.class, () -> OrderJournal.recover(dir));
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOrderPricer {
+    private ProductCollection createProducts() {
+        ProductCollection productCollection = new ProductCollection();
+        productCollection.add(new Product('A', 0.52, "80%"));
+        productCollection.add(new Product('B', 0.38, "120%", "30% off"));
+        productCollection.add(new Product('C', 0.41, "0.9 EUR/unit"));
+        productCollection.add(new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free"));
+        return productCollection;
+    }
+
+    private ClientCollection createClients() {
+        ClientCollection clientCollection = new ClientCollection();
+        clientCollection.add(new Client(1, "5%", "0%", "2%"));
+        clientCollection.add(new Client(2, "4%", "1%", "2%"));
+        clientCollection.add(new Client(5, "0%", "5%", "7%"));
+        return clientCollection;
+    }
+
+    private double priceWithClient(ProductCollection products, Client client, int... amounts) {
+        for (int i = 0; i < amounts.length; i++) {
+            if (amounts[i] != 0) {
+                client.addToOrder(products.get(i), amounts[i]);
+            }
+        }
+        return client.finishOrder();
+    }
+
+    @Test
+    public void testPriceSameAsClient() {
+        ProductCollection products = createProducts();
+        ClientCollection clients = createClients();
+        OrderPricer pricer = new OrderPricer(products, clients);
+        int[][] orders = {{10000, 20000, 0, 0}, {1, 2, 3, 4}, {0, 0, 0, 50000}, {7}};
+        for (int clientId : new int[]{1, 2, 5}) {
+            for (int[] amounts : orders) {
+                PricedOrder priced = pricer.price(new OrderRequest(clientId, amounts));
+                Client client = new Client(clientId, "0%", "0%", "0%");
+                Client reference = clients.get(clientId);
+                client.setBasicClientDiscount(reference.getBasicClientDiscount());
+                client.setAdditionalVolumeDiscountAbove10k(reference.getAdditionalVolumeDiscountAbove10k());
+                client.setAdditionalVolumeDiscountAbove30k(reference.getAdditionalVolumeDiscountAbove30k());
+                assertEquals(priceWithClient(products, client, amounts), priced.getTotal());
+                assertEquals(clientId, priced.getClientId());
+            }
+        }
+    }
+
+    @Test
+    public void testPriceAll() {
+        OrderPricer pricer = new OrderPricer(createProducts(), createClients());
+        OrderRequest[] orders = new OrderRequest[1000];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new OrderRequest(i % 2 == 0 ? 1 : 5, i, 2 * i, 0, i * i);
+        }
+        PricedOrder[] priced = pricer.priceAll(orders);
+        for (int i = 0; i < orders.length; i++) {
+            assertEquals(pricer.price(orders[i]).getTotal(), priced[i].getTotal());
+        }
+        assertEquals(orders.length, pricer.priceAll(Arrays.stream(orders).parallel()).size());
+    }
+
+    @Test
+    public void testPriceInvalidOrders() {
+        OrderPricer pricer = new OrderPricer(createProducts(), createClients());
+        assertThrows(IllegalArgumentException.class, () -> pricer.price(new OrderRequest(3, 1)));
+        assertThrows(IllegalArgumentException.class, () -> pricer.price(new OrderRequest(1, 1, 1, 1, 1, 1)));
+    }
+}
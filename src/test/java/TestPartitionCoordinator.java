@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPartitionCoordinator {
+    /**
+     * Start a worker per partition in this JVM, each with its own copy of the sample catalog.
+     */
+    private static List<PartitionWorker> startWorkers(int partitions) throws IOException {
+        List<PartitionWorker> workers = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            PartitionWorker worker = new PartitionWorker(Main.createProducts(), Main.createClients(), i, partitions);
+            worker.start();
+            workers.add(worker);
+        }
+        return workers;
+    }
+
+    private static PartitionCoordinator connect(List<PartitionWorker> workers) throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (PartitionWorker worker : workers) {
+            addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.getPort()));
+        }
+        return new PartitionCoordinator(addresses);
+    }
+
+    private static void stop(List<PartitionWorker> workers) throws IOException {
+        for (PartitionWorker worker : workers) {
+            worker.close();
+        }
+    }
+
+    /**
+     * Price orders with the clients and products of a single JVM.
+     */
+    private static long[] priceLocally(OrderRequest[] orders) {
+        OrderPricer pricer = new OrderPricer(Main.createProducts(), Main.createClients());
+        long[] totals = new long[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            totals[i] = pricer.price(orders[i]).getTotalCents();
+        }
+        return totals;
+    }
+
+    private static Path writeTemp(String orders) throws IOException {
+        Path path = Files.createTempFile("orders", ".txt");
+        path.toFile().deleteOnExit();
+        return Files.writeString(path, orders);
+    }
+
+    @Test
+    public void testPartitionOf() {
+        int[] counts = new int[4];
+        for (int id = 0; id < 4000; id++) {
+            int partition = PartitionCoordinator.partitionOf(id, 4);
+            assertEquals(partition, PartitionCoordinator.partitionOf(id, 4));
+            counts[partition]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800, "Partitions are unbalanced: " + count);
+        }
+        assertEquals(0, PartitionCoordinator.partitionOf(-7, 1));
+    }
+
+    @Test
+    public void testPriceAllMatchesSingleProcess() throws IOException {
+        OrderRequest[] orders = new OrderRequest[3 * PartitionCoordinator.WINDOW + 5];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new OrderRequest(1 + i % 5, i % 100, i * 7 % 1000, 3, i % 11);
+        }
+        long[] expected = priceLocally(orders);
+        List<PartitionWorker> workers = startWorkers(3);
+        try (PartitionCoordinator coordinator = connect(workers)) {
+            assertEquals(3, coordinator.getPartitionCount());
+            PricedOrder[] priced = coordinator.priceAll(orders);
+            for (int i = 0; i < orders.length; i++) {
+                assertEquals(orders[i].getClientId(), priced[i].getClientId());
+                assertEquals(expected[i], priced[i].getTotalCents(), "order " + i);
+            }
+        } finally {
+            stop(workers);
+        }
+    }
+
+    @Test
+    public void testRejectedOrders() throws IOException {
+        List<PartitionWorker> workers = startWorkers(2);
+        try (PartitionCoordinator coordinator = connect(workers)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> coordinator.price(9, new int[]{1}, 1));
+            assertTrue(e.getMessage().startsWith("There is no client with ID: 9"));
+            e = assertThrows(IllegalArgumentException.class,
+                    () -> coordinator.priceAll(new OrderRequest[]{new OrderRequest(1, 1), new OrderRequest(2, -1)}));
+            assertEquals("Order 1: Cannot buy a negative amount.", e.getMessage());
+            // The connections stay usable.
+            assertEquals(new Product('B', 0.38, "120%", "30% off").checkTotalPriceCents(1),
+                    coordinator.price(4, new int[]{0, 1}, 2).getTotalBeforeDiscountsCents());
+        } finally {
+            stop(workers);
+        }
+    }
+
+    @Test
+    public void testProcess() throws IOException {
+        List<PartitionWorker> workers = startWorkers(2);
+        try (PartitionCoordinator coordinator = connect(workers)) {
+            String orders = "# client amounts\n\n1 10 0 30\n2 0 1\n";
+            StringWriter expected = new StringWriter();
+            OrderFileProcessor.Result local = new OrderFileProcessor(new OrderPricer(Main.createProducts(), Main.createClients()),
+                    OrderFileProcessor.Output.SUMMARY).process(writeTemp(orders), expected);
+            StringWriter out = new StringWriter();
+            OrderFileProcessor.Result result = coordinator.process(new BufferedReader(new StringReader(orders)), "orders", out);
+            assertEquals(expected.toString(), out.toString());
+            assertEquals(2, result.getOrders());
+            assertEquals(local.getTotalCents(), result.getTotalCents());
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> coordinator.process(
+                    new BufferedReader(new StringReader("1 1\n\n7 1\n")), "orders", new StringWriter()));
+            assertTrue(e.getMessage().startsWith("orders:3: There is no client with ID: 7"));
+        } finally {
+            stop(workers);
+        }
+    }
+
+    @Test
+    public void testRepeatedClients() throws IOException {
+        StringBuilder orders = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            orders.append(1 + i % 3).append(' ').append(100 * i).append(" 0 ").append(i).append(" 7\n");
+        }
+        StringWriter expected = new StringWriter();
+        new OrderFileProcessor(new OrderPricer(Main.createProducts(), Main.createClients()), OrderFileProcessor.Output.SUMMARY)
+                .process(writeTemp(orders.toString()), expected);
+        List<PartitionWorker> workers = startWorkers(2);
+        try (PartitionCoordinator coordinator = connect(workers)) {
+            // The workers keep the expenditure of their clients, but it does not change the prices.
+            for (int run = 0; run < 2; run++) {
+                StringWriter out = new StringWriter();
+                coordinator.process(new BufferedReader(new StringReader(orders.toString())), "orders", out);
+                assertEquals(expected.toString(), out.toString(), "run " + run);
+            }
+        } finally {
+            stop(workers);
+        }
+    }
+
+    @Test
+    public void testLaunchWorkerProcesses() throws IOException {
+        OrderRequest[] orders = new OrderRequest[50];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new OrderRequest(1 + i % 5, i, 2 * i);
+        }
+        long[] expected = priceLocally(orders);
+        try (PartitionCoordinator coordinator = PartitionCoordinator.launch(2)) {
+            PricedOrder[] priced = coordinator.priceAll(orders);
+            for (int i = 0; i < orders.length; i++) {
+                assertEquals(expected[i], priced[i].getTotalCents());
+            }
+        }
+    }
+}
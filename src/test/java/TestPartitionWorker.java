@@ -0,0 +1,39 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPartitionWorker {
+    @Test
+    public void testOwnsItsPartition() throws IOException {
+        int owned = 0;
+        for (int partition = 0; partition < 3; partition++) {
+            try (PartitionWorker worker = new PartitionWorker(Main.createProducts(), Main.createClients(), partition, 3)) {
+                owned += worker.getClientCount();
+            }
+        }
+        assertEquals(5, owned);
+        assertThrows(IllegalArgumentException.class, () -> new PartitionWorker(Main.createProducts(), Main.createClients(), 3, 3));
+    }
+
+    @Test
+    public void testHandle() throws IOException {
+        try (PartitionWorker worker = new PartitionWorker(Main.createProducts(), Main.createClients(), 0, 1)) {
+            int[] amounts = new int[4];
+            OrderPricer reference = new OrderPricer(Main.createProducts(), Main.createClients());
+            PricedOrder large = reference.price(new OrderRequest(5, 0, 0, 0, 50000));
+            String expected = large.getTotalBeforeDiscountsCents() + " " + large.getTotalCents();
+            assertEquals(expected, worker.handle("5 0 0 0 50000", amounts));
+
+            // Every order is priced on its own, whatever the client ordered before.
+            assertEquals(expected, worker.handle("5 0 0 0 50000", amounts));
+            assertEquals("658 " + reference.price(new OrderRequest(5, 7)).getTotalCents(), worker.handle("5 7", amounts));
+
+            assertEquals("!There is no client with ID: 6 in partition 0", worker.handle("6 1", amounts));
+            assertEquals("!Cannot buy a negative amount.", worker.handle("1 -1", amounts));
+            assertEquals("!Order has more lines than there are products", worker.handle("1 1 1 1 1 1", amounts));
+            assertTrue(worker.handle("x 1", amounts).startsWith("!"));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPriceCache {
+    @Test
+    public void testHitsAndMisses() {
+        Product product = new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free");
+        PriceCache cache = new PriceCache(16, 2);
+        product.setPriceCache(cache);
+        assertEquals(3.2, product.checkTotalPrice(3));
+        assertEquals(3.2, product.checkTotalPrice(3));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // Larger amounts go to the LRU map, which keeps two entries.
+        long price100 = product.checkTotalPriceCents(100);
+        product.checkTotalPriceCents(200);
+        assertEquals(price100, product.checkTotalPriceCents(100));
+        product.checkTotalPriceCents(300);
+        product.checkTotalPriceCents(100);
+        assertEquals(3, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        product.checkTotalPriceCents(200);
+        assertEquals(5, cache.getMisses());
+    }
+
+    @Test
+    public void testInvalidation() {
+        Product product = new Product('A', 1, "0%");
+        product.setPriceCache(new PriceCache());
+        assertEquals(10, product.checkTotalPrice(10));
+        product.setUnitCost(2);
+        assertEquals(20, product.checkTotalPrice(10));
+        product.setMarkup("50%");
+        assertEquals(30, product.checkTotalPrice(10));
+        product.setProductPromotion("10% off");
+        assertEquals(27, product.checkTotalPrice(10));
+        assertEquals(0, product.getPriceCache().getHits());
+        assertEquals(4, product.getPriceCache().getMisses());
+        assertThrows(IllegalArgumentException.class, () -> product.checkTotalPrice(-1));
+    }
+
+    @Test
+    public void testPriceComputedBeforeChangeIsNotKept() {
+        for (long amount : new long[]{10, 5000}) {
+            boolean[] changed = {false};
+            Product product = new Product('A', 1, "0%") {
+                @Override
+                long computeTotalPriceCents(long amount) {
+                    long cents = super.computeTotalPriceCents(amount);
+                    // The unit cost changes while the old price is being computed.
+                    if (!changed[0]) {
+                        changed[0] = true;
+                        setUnitCost(2);
+                    }
+                    return cents;
+                }
+            };
+            product.setPriceCache(new PriceCache());
+            assertEquals(amount * 100, product.checkTotalPriceCents(amount));
+            assertEquals(amount * 200, product.checkTotalPriceCents(amount));
+        }
+    }
+
+    @Test
+    public void testRepriceKeepsCacheSizes() {
+        ProductCollection products = new ProductCollection();
+        Product product = new Product('A', 1, "0%");
+        product.setPriceCache(new PriceCache(4, 2));
+        product.checkTotalPriceCents(3);
+        products.add(product);
+        products.reprice(copy -> copy.setUnitCost(2));
+
+        PriceCache cache = products.get('A').getPriceCache();
+        assertNotSame(product.getPriceCache(), cache);
+        assertEquals(4, cache.getDenseSize());
+        assertEquals(2, cache.getLruCapacity());
+        assertEquals(0, cache.getMisses());
+        assertEquals(600, products.get('A').checkTotalPriceCents(3));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        Product product = new Product('A', 1, "0%");
+        PriceCache cache = new PriceCache(0, 100);
+        product.setPriceCache(cache);
+        for (long amount = 1; amount <= 1000; amount++) {
+            assertEquals(amount * 7919 * 100, product.checkTotalPriceCents(amount * 7919));
+            // Keep the first amount in use, so it is never the least recently used.
+            assertEquals(7919 * 100, product.checkTotalPriceCents(7919));
+        }
+        assertEquals(1000, cache.getHits());
+        // 7919 and the 99 most recent amounts are still cached, the amount before them is not.
+        for (long amount = 1000; amount >= 902; amount--) {
+            product.checkTotalPriceCents(amount * 7919);
+        }
+        product.checkTotalPriceCents(901 * 7919);
+        assertEquals(1000 + 99, cache.getHits());
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPricingMetrics {
+    @Test
+    public void testRecord() {
+        PricingMetrics metrics = new PricingMetrics();
+        metrics.recordCheckTotalPrice(1500);
+        metrics.recordOrder(null);
+        metrics.recordOrder(DiscountStep.Kind.BASIC);
+        metrics.recordOrder(DiscountStep.Kind.ABOVE_10K);
+        metrics.recordOrder(DiscountStep.Kind.ABOVE_30K);
+        metrics.recordPromotion("D");
+        metrics.recordPromotion("D");
+        metrics.recordPromotion("C");
+        assertEquals(4, metrics.getOrders());
+        assertEquals(1, metrics.getOrdersAbove10k());
+        assertEquals(1, metrics.getOrdersAbove30k());
+        assertEquals("{C=1, D=2}", metrics.getPromotionApplications().toString());
+        assertEquals(1, metrics.getCheckTotalPriceLatency().get("count"));
+        assertEquals(1500, metrics.getCheckTotalPriceLatency().get("maxNanos"));
+        assertTrue(metrics.dump().startsWith("checkTotalPrice: count=1 mean=1.5us"));
+        assertTrue(metrics.dump().contains("orders: 4, above 10k: 1, above 30k: 1"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getOrders());
+        assertTrue(metrics.getPromotionApplications().isEmpty());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        PricingMetrics metrics = PricingMetrics.get();
+        metrics.register();
+        metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(PricingMetrics.OBJECT_NAME);
+        assertEquals(PricingMetrics.ENABLED, server.getAttribute(name, "Enabled"));
+        assertEquals(metrics.getOrders(), server.getAttribute(name, "Orders"));
+        TabularData latency = (TabularData) server.getAttribute(name, "FinishOrderLatency");
+        CompositeData count = latency.get(new Object[]{"count"});
+        assertEquals(metrics.getFinishOrderHistogram().getCount(), count.get("value"));
+        assertTrue(((String) server.invoke(name, "dump", null, null)).contains("finishOrder"));
+    }
+
+    @Test
+    public void testPeriodicDump() throws Exception {
+        StringWriter out = new StringWriter();
+        ScheduledFuture<?> dumps = new PricingMetrics().startDump(out, 10, TimeUnit.MILLISECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!out.toString().contains("promotions applied") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        dumps.cancel(false);
+        assertTrue(out.toString().startsWith("checkTotalPrice: count=0"));
+    }
+}
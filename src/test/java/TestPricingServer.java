@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPricingServer {
+    private PricingServer server;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = new PricingServer(new VersionedCatalog(Main.createProducts()), Main.createClients(), 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery)).build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testPrice() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/price?client=1&amounts=10,20,30,40");
+        assertEquals(200, response.statusCode());
+        PricedOrder expected = new OrderPricer(Main.createProducts(), Main.createClients()).price(new OrderRequest(1, 10, 20, 30, 40));
+        assertEquals("{\"client\":1,\"totalBeforeDiscounts\":" + expected.getTotalBeforeDiscounts()
+                + ",\"total\":" + expected.getTotal() + "}", response.body());
+    }
+
+    @Test
+    public void testDiscounts() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/discounts?client=4");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"client\":4,\"basic\":2.0,\"above10k\":3.0,\"above30k\":5.0}", response.body());
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException, InterruptedException {
+        assertEquals(400, get("/price?client=9&amounts=1").statusCode());
+        assertEquals(400, get("/price?amounts=1").statusCode());
+        assertEquals(400, get("/price?client=1&amounts=x").statusCode());
+        assertEquals(400, get("/price?client=1&amounts=1,1,1,1,1").statusCode());
+        assertEquals(404, get("/unknown").statusCode());
+    }
+
+    @Test
+    public void testGetParameter() {
+        assertEquals("1", PricingServer.getParameter("client=1&amounts=2", "client"));
+        assertEquals("2", PricingServer.getParameter("client=1&amounts=2", "amounts"));
+        assertNull(PricingServer.getParameter("clients=1", "client"));
+        assertNull(PricingServer.getParameter(null, "client"));
+    }
+}
@@ -58,4 +58,25 @@ public class TestProduct {
         Product product2 = new Product('A', 1.5, "0.9 EUR/unit");
         assertEquals(round2((1.5 + 0.9) * amount), product2.checkTotalPrice(amount));
     }
+
+    @Test
+    public void testSetters() {
+        Product product = new Product('A', 1, "50%");
+        product.setUnitCost(2);
+        assertEquals(3, product.getUnitPriceWithMarkup());
+        product.setMarkup("1 EUR/unit");
+        assertEquals(3, product.getUnitPriceWithMarkup());
+        product.setProductPromotion("Buy 1, get 2nd free");
+        assertEquals(6, product.checkTotalPrice(4));
+        assertThrows(IllegalArgumentException.class, () -> product.setProductPromotion("wrongly formatted promotion"));
+    }
+
+    @Test
+    public void testMarkupUnits() {
+        assertEquals(8000, new PercentageMarkup(80).getBasisPoints());
+        assertEquals(8000, PercentageMarkup.ofBasisPoints(8000).getBasisPoints());
+        assertEquals(90, new FixedMarkup(0.9).getCentsPerUnit());
+        assertEquals(90, FixedMarkup.ofCents(90).getCentsPerUnit());
+        assertThrows(IllegalArgumentException.class, () -> new PercentageMarkup(-1));
+    }
 }
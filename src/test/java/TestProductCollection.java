@@ -42,4 +42,73 @@ public class TestProductCollection {
         productCollection.remove(product.getId());
         assertNull(productCollection.get(product.getId()));
     }
+
+    @Test
+    public void testGetIntSortedAfterChanges() {
+        ProductCollection productCollection = new ProductCollection();
+        Product c = new Product('C', 1, "0%");
+        Product a = new Product('A', 1, "0%");
+        Product b = new Product('B', 1, "0%");
+        productCollection.add(c);
+        productCollection.add(a);
+        assertSame(a, productCollection.get(0));
+        assertSame(c, productCollection.get(1));
+        productCollection.add(b);
+        assertSame(b, productCollection.get(1));
+        productCollection.remove('A');
+        assertSame(b, productCollection.get(0));
+        assertSame(c, productCollection.get(1));
+        assertEquals(2, productCollection.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> productCollection.get(2));
+        assertNull(productCollection.get('A'));
+        assertNull(productCollection.get('Z'));
+    }
+
+    @Test
+    public void testReprice() {
+        ProductCollection productCollection = new ProductCollection();
+        Product a = new Product('A', 1, "50%");
+        productCollection.add(a);
+        productCollection.add(new Product('B', 2, "1 EUR/unit"));
+        PriceList priceList = productCollection.reprice(product -> product.setUnitCost(product.getUnitCost() * 2));
+        assertEquals(2, priceList.size());
+        assertEquals('A', priceList.getId(0));
+        assertEquals(3, priceList.getUnitPrice(0));
+        assertEquals(500, priceList.getUnitPriceCents(1));
+        assertEquals(2, productCollection.get('A').getUnitCost());
+        assertSame(productCollection.get('A'), productCollection.get(0));
+        assertEquals(1, a.getUnitCost());
+
+        assertThrows(IllegalArgumentException.class, () -> productCollection.reprice(product -> {
+            if (product.getId() == 'B') {
+                product.setMarkup("wrongly formatted markup");
+            } else {
+                product.setMarkup("0%");
+            }
+        }));
+        assertEquals("50%", productCollection.get('A').getMarkup());
+        assertEquals(3, productCollection.getPriceList().getUnitPrice(0));
+    }
+
+    @Test
+    public void testRepriceConsistentForReaders() throws InterruptedException {
+        ProductCollection productCollection = new ProductCollection();
+        for (char id = 0; id < 1000; id++) {
+            productCollection.add(new Product(id, 1, "0%"));
+        }
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                productCollection.reprice(product -> product.setUnitCost(product.getUnitCost() + 1));
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            PriceList priceList = productCollection.getPriceList();
+            for (int i = 1; i < priceList.size(); i++) {
+                assertEquals(priceList.getUnitPriceCents(0), priceList.getUnitPriceCents(i));
+            }
+        }
+        writer.join();
+        assertEquals(51, productCollection.get((char) 999).getUnitCost());
+    }
 }
@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPromotionRegistry {
+    @Test
+    public void testParseDefaultFormats() {
+        PromotionRegistry registry = PromotionRegistry.getDefault();
+        assertNull(registry.parse(null));
+        assertEquals(30, ((PercentOffPromotion) registry.parse("30% off")).getPercentage());
+        assertEquals(2, ((BuyNGetOnePromotion) registry.parse("Buy 2, get 3rd free")).getPaidUnits());
+        assertThrows(IllegalArgumentException.class, () -> registry.parse("wrongly formatted promotion"));
+    }
+
+    @Test
+    public void testRegister() {
+        PromotionRegistry registry = new PromotionRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.parse("Half price"));
+        registry.register(s -> s.equals("Half price") ? PercentOffPromotion.ofBasisPoints(5000) : null);
+        assertEquals(5, registry.parse("Half price").apply(10, 1));
+    }
+
+    @Test
+    public void testParseMarkup() {
+        assertEquals(150, Markup.parse("50%").getUnitPriceCents(100));
+        assertEquals(190, Markup.parse("0.9 EUR/unit").getUnitPriceCents(100));
+        assertThrows(IllegalArgumentException.class, () -> Markup.parse("wrongly formatted markup"));
+    }
+
+    @Test
+    public void testHugeAmounts() {
+        long amount = 3_000_000_000_000L;
+        BuyNGetOnePromotion buyTwo = new BuyNGetOnePromotion(2);
+        assertEquals(2_000_000_000_000L, buyTwo.getPaidAmount(amount));
+        assertEquals(200_000_000_000_000L, buyTwo.apply(amount, 100));
+        assertEquals(100_000_000_000_000L, buyTwo.getDiscountCents(amount, 100));
+        assertEquals(Integer.MAX_VALUE, new BuyNGetOnePromotion(Integer.MAX_VALUE).getPaidAmount(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new BuyNGetOnePromotion(0));
+
+        PercentOffPromotion thirtyOff = PercentOffPromotion.ofBasisPoints(3000);
+        assertEquals(210_000_000_000_000L, thirtyOff.apply(amount, 100));
+        assertEquals(90_000_000_000_000L, thirtyOff.getDiscountCents(amount, 100));
+        assertEquals(Money.percentOf(12345 * 67L, 7000), thirtyOff.apply(12345, 67));
+        // The full price exceeds the range of a long, but the discounted price does not.
+        assertEquals(Long.MAX_VALUE - 1, PercentOffPromotion.ofBasisPoints(5000).apply(Long.MAX_VALUE / 2, 4));
+
+        assertThrows(ArithmeticException.class, () -> buyTwo.apply(Long.MAX_VALUE / 2, 100));
+        assertThrows(ArithmeticException.class, () -> new Product('A', 1, "0%").checkTotalPriceCents(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentOffUnits() {
+        assertEquals(3000, new PercentOffPromotion(30).getBasisPoints());
+        assertEquals(3000, PercentOffPromotion.ofBasisPoints(3000).getBasisPoints());
+        assertThrows(IllegalArgumentException.class, () -> new PercentOffPromotion(101));
+        assertThrows(IllegalArgumentException.class, () -> PercentOffPromotion.ofBasisPoints(10001));
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestReceiptRenderer {
+    @Test
+    public void testRenderLine() {
+        StringWriter writer = new StringWriter();
+        ReceiptRenderer renderer = ReceiptRenderer.writer(writer);
+        renderer.renderLine(new ReceiptLine(new Product('D', 0.60, "1 EUR/unit", "Buy 2, get 3rd free"), 3));
+        renderer.flush();
+        assertEquals(String.join(System.lineSeparator(),
+                "Product: D",
+                "Amount: 3",
+                "Unit price: 1.6",
+                "Mean promotional unit price: 1.0666666666666667",
+                "Total: 3.2\n",
+                ""), writer.toString());
+    }
+
+    @Test
+    public void testRenderReceipt() {
+        Client client = new Client(1, "5%", "0%", "2%");
+        Receipt receipt = client.checkout(List.of(new ReceiptLine(new Product('A', 1, "0%"), 40000)));
+        StringWriter writer = new StringWriter();
+        ReceiptRenderer renderer = ReceiptRenderer.writer(writer);
+        renderer.render(receipt);
+        renderer.flush();
+        assertTrue(writer.toString().endsWith(String.join(System.lineSeparator(),
+                "Total price before client discounts: 40000.0 EUR.",
+                "Total price after 5.0% client discount: 38000.0 EUR",
+                "Total price after 2.0% client discount for spending above 30 000 EUR: 37240.0 EUR",
+                "Total price: 37240.0 EUR",
+                "")));
+    }
+
+    @Test
+    public void testClientUsesRenderer() {
+        Client client = new Client(1, "0%", "0%", "0%");
+        client.setRenderer(ReceiptRenderer.NONE);
+        client.addToOrder(new Product('A', 1, "0%"), 5);
+        assertEquals(5, client.finishOrder());
+
+        Receipt receipt = client.checkout(List.of(new ReceiptLine(new Product('A', 1, "0%"), 5)));
+        assertEquals(5, receipt.getTotal());
+        assertTrue(receipt.getDiscounts().isEmpty());
+    }
+}
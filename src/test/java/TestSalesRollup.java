@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSalesRollup {
+    @Test
+    public void testAggregates() {
+        OrderPricer pricer = new OrderPricer(Main.createProducts(), Main.createClients());
+        SalesRollup rollup = new SalesRollup();
+        Receipt small = pricer.quote(new OrderRequest(1, 10, 0, 30));
+        Receipt above10k = pricer.quote(new OrderRequest(2, 0, 0, 0, 10000));
+        Receipt above30k = pricer.quote(new OrderRequest(2, 0, 0, 30000));
+        rollup.record(small);
+        rollup.record(above10k);
+        rollup.record(above30k);
+
+        assertEquals(3, rollup.getOrders());
+        assertEquals(1, rollup.getOrdersAbove10k());
+        assertEquals(1, rollup.getOrdersAbove30k());
+        assertEquals(small.getTotalCents() + above10k.getTotalCents() + above30k.getTotalCents(), rollup.getRevenueCents());
+        assertEquals(small.getTotalCents(), rollup.getClientRevenueCents(1));
+        assertEquals(above10k.getTotalCents() + above30k.getTotalCents(), rollup.getClientRevenueCents(2));
+        assertEquals(0, rollup.getClientRevenueCents(3));
+
+        ProductSales c = rollup.getProductSales('C');
+        assertEquals(30030, c.getUnits());
+        assertEquals(small.getLines().get(1).getTotalCents() + above30k.getLines().get(0).getTotalCents(), c.getRevenueCents());
+        assertEquals(0, rollup.getProductSales('B').getUnits());
+
+        List<ProductSales> top = rollup.getTopProductsByRevenue(2);
+        assertEquals(2, top.size());
+        assertEquals('C', top.get(0).getProductId());
+        assertEquals('D', top.get(1).getProductId());
+        assertEquals('C', rollup.getTopProductsByUnits(5).get(0).getProductId());
+        assertEquals(3, rollup.getTopProductsByUnits(5).size());
+        assertThrows(IllegalArgumentException.class, () -> rollup.getTopProductsByUnits(-1));
+    }
+
+    @Test
+    public void testWideSkus() {
+        Client client = Main.createClients().get(1);
+        Product lager = new Product("BEER-LAGER-33CL", 0.52, "80%");
+        Product ale = new Product("BEER-ALE-50CL", 0.60, "1 EUR/unit");
+        SalesRollup rollup = new SalesRollup();
+        rollup.record(client.checkout(List.of(new ReceiptLine(lager, 3), new ReceiptLine(ale, 1))));
+        rollup.record(client.checkout(List.of(new ReceiptLine(lager, 2))));
+
+        ProductSales sales = rollup.getProductSales("BEER-LAGER-33CL");
+        assertEquals(5, sales.getUnits());
+        assertEquals(lager.checkTotalPriceCents(3) + lager.checkTotalPriceCents(2), sales.getRevenueCents());
+        assertThrows(IllegalStateException.class, sales::getProductId);
+        List<ProductSales> top = rollup.getTopProductsByUnits(5);
+        assertEquals("BEER-LAGER-33CL", top.get(0).getSku());
+        assertEquals("BEER-ALE-50CL", top.get(1).getSku());
+    }
+
+    @Test
+    public void testTimeWindows() {
+        OrderPricer pricer = new OrderPricer(Main.createProducts(), Main.createClients());
+        Receipt receipt = pricer.quote(new OrderRequest(1, 10));
+        AtomicLong now = new AtomicLong(100_000);
+        SalesRollup rollup = new SalesRollup(10, 1000, now::get);
+        rollup.record(receipt);
+        now.addAndGet(3000);
+        rollup.record(receipt);
+        rollup.record(receipt);
+
+        assertEquals(2, rollup.getWindowOrders(1000));
+        assertEquals(3, rollup.getWindowOrders(4000));
+        assertEquals(3 * receipt.getTotalCents(), rollup.getWindowRevenueCents(10_000));
+
+        // Buckets older than the window are reused.
+        now.addAndGet(8000);
+        rollup.record(receipt);
+        assertEquals(1, rollup.getWindowOrders(1000));
+        assertEquals(3, rollup.getWindowOrders(10_000));
+        assertEquals(4, rollup.getOrders());
+        assertThrows(IllegalArgumentException.class, () -> rollup.getWindowOrders(10_001));
+    }
+
+    @Test
+    public void testConcurrentBatch() throws IOException {
+        StringBuilder orders = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            orders.append(1 + i % 5).append(" 1 2 3 4\n");
+        }
+        SalesRollup rollup = new SalesRollup();
+        OrderPricer pricer = new OrderPricer(Main.createProducts(), Main.createClients());
+        OrderFileProcessor.Result result = new BatchOrderProcessor(pricer, 4, rollup)
+                .process(new BufferedReader(new StringReader(orders.toString())), "orders", Writer.nullWriter());
+        assertEquals(3000, rollup.getOrders());
+        assertEquals(result.getTotalCents(), rollup.getRevenueCents());
+        assertEquals(3000 * 4, rollup.getProductSales('D').getUnits());
+        assertEquals(3000, rollup.getWindowOrders(SalesRollup.DEFAULT_BUCKETS * SalesRollup.DEFAULT_BUCKET_MILLIS));
+    }
+}
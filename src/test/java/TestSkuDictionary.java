@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSkuDictionary {
+    @Test
+    public void testInternAssignsDenseOrdinals() {
+        SkuDictionary dictionary = new SkuDictionary();
+        assertEquals(0, dictionary.intern("BEER-0001"));
+        assertEquals(1, dictionary.intern("WINE-0001"));
+        assertEquals(0, dictionary.intern("BEER-0001"));
+        assertEquals(2, dictionary.size());
+        assertEquals("WINE-0001", dictionary.getSku(1));
+    }
+
+    @Test
+    public void testLookup() {
+        SkuDictionary dictionary = new SkuDictionary();
+        dictionary.intern("A");
+        assertEquals(0, dictionary.lookup("A"));
+        assertEquals(-1, dictionary.lookup("B"));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    public void testGrowsToManySkus() {
+        SkuDictionary dictionary = new SkuDictionary();
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, dictionary.intern("SKU-" + i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, dictionary.lookup("SKU-" + i));
+            assertEquals("SKU-" + i, dictionary.getSku(i));
+        }
+        assertEquals(-1, dictionary.lookup("SKU-100000"));
+    }
+
+    @Test
+    public void testInvalidSkus() {
+        SkuDictionary dictionary = new SkuDictionary();
+        assertThrows(IllegalArgumentException.class, () -> dictionary.intern(""));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.intern(null));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.getSku(0));
+    }
+
+    @Test
+    public void testSmallerThanHashMap() {
+        SkuDictionary dictionary = new SkuDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dictionary.intern("SKU-" + i);
+        }
+        assertTrue(dictionary.estimateBytes() < SkuDictionary.estimateHashMapBytes(1000));
+    }
+}
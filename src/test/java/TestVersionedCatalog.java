@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestVersionedCatalog {
+    private ProductCollection createProducts() {
+        ProductCollection productCollection = new ProductCollection();
+        productCollection.add(new Product('A', 1, "0%"));
+        productCollection.add(new Product('B', 2, "0%", "50% off"));
+        return productCollection;
+    }
+
+    @Test
+    public void testVersionsAreIsolated() {
+        ProductCollection products = createProducts();
+        VersionedCatalog catalog = new VersionedCatalog(products);
+        CatalogVersion first = catalog.current();
+        products.get('A').setUnitCost(10);
+        assertEquals(100, first.checkTotalPriceCents('A', 1));
+
+        CatalogVersion second = catalog.update(collection -> {
+            collection.get('A').setUnitCost(3);
+            collection.remove('B');
+            collection.add(new Product('C', 1, "1 EUR/unit"));
+        });
+        assertSame(second, catalog.current());
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertEquals(100, first.checkTotalPriceCents('A', 1));
+        assertEquals(200, first.checkTotalPriceCents('B', 2));
+        assertEquals(300, second.checkTotalPriceCents('A', 1));
+        assertFalse(second.contains('B'));
+        assertEquals('C', second.getId(1));
+        assertEquals("C", second.getSku(1));
+        assertEquals(200, second.getUnitPriceCents(1));
+        assertThrows(IllegalArgumentException.class, () -> second.checkTotalPriceCents('B', 1));
+
+        second.getProduct('A').setUnitCost(100);
+        assertEquals(300, second.checkTotalPriceCents('A', 1));
+
+        CatalogVersion third = catalog.update(collection -> collection.add(new Product("BEER-LAGER-33CL", 1, "1 EUR/unit")));
+        assertEquals("BEER-LAGER-33CL", third.getSku(1));
+        assertThrows(IllegalStateException.class, () -> third.getId(1));
+        assertEquals(200, third.checkTotalPriceCents(1, 1));
+    }
+
+    @Test
+    public void testFailedUpdateIsNotPublished() {
+        VersionedCatalog catalog = new VersionedCatalog(createProducts());
+        CatalogVersion first = catalog.current();
+        assertThrows(IllegalArgumentException.class, () -> catalog.update(collection -> collection.get('A').setMarkup("wrong")));
+        assertSame(first, catalog.current());
+    }
+
+    @Test
+    public void testOrderPricedAgainstOneVersion() throws InterruptedException {
+        ProductCollection products = new ProductCollection();
+        for (char id = 'A'; id <= 'Z'; id++) {
+            products.add(new Product(id, 1, "0%"));
+        }
+        VersionedCatalog catalog = new VersionedCatalog(products);
+        ClientCollection clients = new ClientCollection();
+        clients.add(new Client(1, "0%", "0%", "0%"));
+        int[] amounts = new int[26];
+        java.util.Arrays.fill(amounts, 1);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 2; i < 200; i++) {
+                long cost = i;
+                catalog.update(collection -> {
+                    for (Product product : collection.getProducts()) {
+                        product.setUnitCost(cost);
+                    }
+                });
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            CatalogVersion version = catalog.current();
+            PricedOrder order = new OrderPricer(version, clients).price(1, amounts, amounts.length);
+            assertEquals(26 * version.getUnitPriceCents(0), order.getTotalCents());
+        }
+        writer.join();
+        assertEquals(199, catalog.current().getVersion());
+    }
+}